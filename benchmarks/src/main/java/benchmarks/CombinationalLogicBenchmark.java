@@ -0,0 +1,64 @@
+package benchmarks;
+
+import devices.CombinationalLogic;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.Bit;
+import utils.CountMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * throughput of the counter logic and the address hash
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinationalLogicBenchmark {
+    @Param({"2", "3", "8"})
+    public int SCSize;
+
+    @Param({"SATURATING", "UP_DOWN", "JOHNSON"})
+    public CountMode countMode;
+
+    private Workload workload;
+    private Bit[][] counters;
+    private int[] values;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workload = new Workload(SCSize);
+        counters = workload.addressBits(SCSize);
+        values = new int[Workload.SIZE];
+        for (int i = 0; i < Workload.SIZE; i++) values[i] = (int) workload.instructionAddresses[i];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void countBits(Blackhole blackhole) {
+        for (int i = 0; i < Workload.SIZE; i++) {
+            blackhole.consume(CombinationalLogic.count(counters[i], workload.outcomes[i], countMode));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public int countInt() {
+        int sum = 0;
+        for (int i = 0; i < Workload.SIZE; i++) {
+            sum += CombinationalLogic.count(values[i], SCSize, workload.outcomes[i], countMode);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public int hash() {
+        int sum = 0;
+        for (int i = 0; i < Workload.SIZE; i++) sum += CombinationalLogic.hash(workload.instructionAddresses[i], 16, 6);
+        return sum;
+    }
+}
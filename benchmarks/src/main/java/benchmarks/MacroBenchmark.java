@@ -0,0 +1,146 @@
+package benchmarks;
+
+import predictors.BranchPredictor;
+import predictors.PredictorConfig;
+import predictors.PredictorType;
+import trace.SyntheticTrace;
+import utils.CountMode;
+import utils.StorageMode;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * replays the synthetic workloads on every predictor and reports the branches per second, the peak heap and the
+ * accuracy of each run. the hits are compared with the golden results, so an optimization which changes the
+ * predictions fails the suite.
+ * <p>
+ * usage (from the benchmarks directory):
+ * <pre>
+ * java -cp target/benchmarks.jar benchmarks.MacroBenchmark [--length N] [--storage MAPPED|DENSE]
+ *                                                         [--golden FILE] [--update-golden]
+ * </pre>
+ * the process exits with status 1 if any result differs from the golden results.
+ */
+public class MacroBenchmark {
+    private static final long SEED = 42;
+    private static final int ADDRESS_SIZE = 32;
+    private static final long DEFAULT_LENGTH = 1_000_000;
+    private static final String DEFAULT_GOLDEN = "src/main/resources/golden-results.tsv";
+
+    // the canonical configuration of each predictor
+    private static final int BHR_SIZE = 8;
+    private static final int SC_SIZE = 2;
+    private static final int BRANCH_INSTRUCTION_SIZE = 12;
+    private static final int K_SIZE = 6;
+
+    public static void main(String[] args) throws IOException {
+        long length = DEFAULT_LENGTH;
+        StorageMode storageMode = StorageMode.DENSE;
+        Path golden = Path.of(DEFAULT_GOLDEN);
+        boolean update = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--length":
+                    length = Long.parseLong(args[++i]);
+                    break;
+                case "--storage":
+                    storageMode = StorageMode.valueOf(args[++i]);
+                    break;
+                case "--golden":
+                    golden = Path.of(args[++i]);
+                    break;
+                case "--update-golden":
+                    update = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        Map<String, Long> expected = Files.exists(golden) ? readGolden(golden) : new LinkedHashMap<>();
+        Map<String, Long> actual = new LinkedHashMap<>();
+        int failures = 0;
+
+        System.out.printf("%-10s %-5s %14s %12s %10s %10s%n", "workload", "type", "branches/s", "peak heap", "hit rate",
+                "golden");
+        for (SyntheticTrace.Workload workload : SyntheticTrace.Workload.values()) {
+            SyntheticTrace trace = new SyntheticTrace(workload, SEED, length, ADDRESS_SIZE);
+            for (PredictorType type : PredictorType.values()) {
+                PredictorConfig config = new PredictorConfig(type, BHR_SIZE, SC_SIZE, BRANCH_INSTRUCTION_SIZE, K_SIZE,
+                        storageMode, CountMode.SATURATING);
+
+                // warm the JIT with a separate predictor, so the measured run starts from a cold predictor
+                trace.replay(config.create());
+
+                System.gc();
+                resetPeakHeap();
+                BranchPredictor predictor = config.create();
+                long start = System.nanoTime();
+                long hits = trace.replay(predictor);
+                long elapsed = System.nanoTime() - start;
+                long peakHeap = peakHeap();
+
+                // the storage mode does not change the predictions, so it is not part of the key
+                String key = workload + "\t" + type + "\t" + length;
+                actual.put(key, hits);
+                Long expectedHits = expected.get(key);
+                String status = expectedHits == null ? "missing" : expectedHits == hits ? "ok" : "MISMATCH";
+                if (expectedHits != null && expectedHits != hits) failures++;
+
+                System.out.printf("%-10s %-5s %14.0f %10dKB %10.5f %10s%n", workload, type,
+                        length * 1e9 / Math.max(1, elapsed), peakHeap >> 10, (double) hits / Math.max(1, length), status);
+            }
+        }
+
+        if (update) {
+            expected.putAll(actual);
+            writeGolden(golden, expected);
+            System.out.println("golden results are written to " + golden);
+        } else if (failures > 0) {
+            System.out.println(failures + " results differ from the golden results");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Long> readGolden(Path path) throws IOException {
+        Map<String, Long> results = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            int last = line.lastIndexOf('\t');
+            results.put(line.substring(0, last), Long.parseLong(line.substring(last + 1)));
+        }
+        return results;
+    }
+
+    private static void writeGolden(Path path, Map<String, Long> results) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.println("# workload\tpredictor\tlength\thits (seed " + SEED + ", " + ADDRESS_SIZE
+                    + " bit addresses, BHRSize " + BHR_SIZE + ", SCSize " + SC_SIZE + ", branchInstructionSize "
+                    + BRANCH_INSTRUCTION_SIZE + ", KSize " + K_SIZE + ")");
+            results.forEach((key, hits) -> writer.println(key + "\t" + hits));
+        }
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import predictors.*;
+import utils.Bit;
+import utils.BranchResult;
+import utils.CountMode;
+import utils.StorageMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * predict and update throughput of the predictors. every invocation replays a block of Workload.SIZE branches,
+ * so the score is the time per branch. run with -prof gc to see the allocation rate of each path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PredictorBenchmark {
+    private static final int BRANCH_INSTRUCTION_SIZE = 10;
+    private static final int K_SIZE = 6;
+
+    @Param({"GAg", "GAp", "GAs", "PAg", "PAp", "PAs", "SAg", "SAp", "SAs"})
+    public PredictorType type;
+
+    @Param({"4", "8", "12"})
+    public int BHRSize;
+
+    @Param({"2", "3"})
+    public int SCSize;
+
+    @Param({"MAPPED", "DENSE"})
+    public StorageMode storageMode;
+
+    private BranchPredictor predictor;
+    private BranchPredictor specialized;
+    private Workload workload;
+    private BranchInstruction[] instructions;
+    private BranchResult[] results;
+    private CompactBranchInstruction compact;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        predictor = new PredictorConfig(type, BHRSize, SCSize, BRANCH_INSTRUCTION_SIZE, K_SIZE, storageMode,
+                CountMode.SATURATING).create();
+        specialized = new PredictorConfig(type, BHRSize, SCSize, BRANCH_INSTRUCTION_SIZE, K_SIZE, storageMode,
+                CountMode.SATURATING).createSpecialized();
+        workload = new Workload(BRANCH_INSTRUCTION_SIZE);
+
+        Bit[][] addresses = workload.addressBits(BRANCH_INSTRUCTION_SIZE);
+        instructions = new BranchInstruction[Workload.SIZE];
+        results = new BranchResult[Workload.SIZE];
+        for (int i = 0; i < Workload.SIZE; i++) {
+            instructions[i] = new BranchInstruction(new Bit[0], addresses[i], new Bit[0]);
+            results[i] = workload.outcomes[i] ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
+        }
+        compact = new CompactBranchInstruction(0, BRANCH_INSTRUCTION_SIZE, 0);
+    }
+
+    /**
+     * the bit array interface which the original predictors implement
+     */
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void predictUpdate(Blackhole blackhole) {
+        for (int i = 0; i < Workload.SIZE; i++) {
+            blackhole.consume(predictor.predict(instructions[i]));
+            predictor.update(instructions[i], results[i]);
+        }
+    }
+
+    /**
+     * the compact instruction interface with a reused instruction
+     */
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void predictUpdateCompact(Blackhole blackhole) {
+        for (int i = 0; i < Workload.SIZE; i++) {
+            compact.set(0, workload.instructionAddresses[i], 0);
+            blackhole.consume(predictor.predict(compact));
+            predictor.update(compact, results[i]);
+        }
+    }
+
+    /**
+     * the batch entry point
+     */
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public int predictAndUpdateBatch() {
+        return predictor.predictAndUpdate(workload.instructionAddresses, BRANCH_INSTRUCTION_SIZE, workload.outcomes, 0,
+                Workload.SIZE, null);
+    }
+
+    /**
+     * the batch entry point of a predictor which is specialized for the configuration (always dense storage)
+     */
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public int predictAndUpdateSpecialized() {
+        return specialized.predictAndUpdate(workload.instructionAddresses, BRANCH_INSTRUCTION_SIZE, workload.outcomes, 0,
+                Workload.SIZE, null);
+    }
+}
@@ -0,0 +1,84 @@
+package benchmarks;
+
+import devices.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.Bit;
+import utils.StorageMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * throughput of the shift registers and the register banks through the bit array interface
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RegisterBenchmark {
+    private static final int SELECTOR_SIZE = 8;
+
+    @Param({"4", "8", "12"})
+    public int BHRSize;
+
+    @Param({"MAPPED", "DENSE"})
+    public StorageMode storageMode;
+
+    private ShiftRegister register;
+    private ShiftRegisterBank bank;
+    private Bit[][] selectors;
+    private Bit[] value;
+    private Bit[] bits;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        boolean dense = storageMode == StorageMode.DENSE;
+        register = dense ? new LongShiftRegister("bhr", BHRSize, null) : new SIPORegister("bhr", BHRSize, null);
+        bank = dense ? new DenseRegisterBank(SELECTOR_SIZE, BHRSize) : new RegisterBank(SELECTOR_SIZE, BHRSize);
+
+        Workload workload = new Workload(SELECTOR_SIZE);
+        selectors = workload.addressBits(SELECTOR_SIZE);
+        bits = new Bit[Workload.SIZE];
+        for (int i = 0; i < Workload.SIZE; i++) bits[i] = workload.outcomes[i] ? Bit.ONE : Bit.ZERO;
+        value = Bit.toBits(5, BHRSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void shiftRegisterInsert() {
+        for (Bit bit : bits) register.insert(bit);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void registerBankRead(Blackhole blackhole) {
+        for (Bit[] selector : selectors) blackhole.consume(bank.read(selector));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void registerBankWrite() {
+        for (Bit[] selector : selectors) bank.write(selector, value);
+    }
+
+    /**
+     * the read, shift and write sequence which the per address predictors used before the in place insert
+     */
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void registerBankReadInsertWrite() {
+        for (int i = 0; i < Workload.SIZE; i++) {
+            ShiftRegister r = bank.read(selectors[i]);
+            r.insert(bits[i]);
+            bank.write(selectors[i], r.read());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void registerBankInsert() {
+        for (int i = 0; i < Workload.SIZE; i++) bank.insert(selectors[i], bits[i]);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import devices.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.Bit;
+import utils.StorageMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * get and put throughput of the page history tables through the bit array interface
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TableBenchmark {
+    private static final int PC_SELECTOR_SIZE = 4;
+
+    @Param({"4", "8", "12"})
+    public int BHRSize;
+
+    @Param({"2", "3"})
+    public int SCSize;
+
+    @Param({"MAPPED", "DENSE"})
+    public StorageMode storageMode;
+
+    private Cache<Bit[], Bit[]> PHT;
+    private Cache<Bit[], Bit[]> PAPHT;
+    private Bit[][] PHTEntries;
+    private Bit[][] PAPHTEntries;
+    private Bit[] block;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        boolean dense = storageMode == StorageMode.DENSE;
+        PHT = dense ? new DensePageHistoryTable(1 << BHRSize, SCSize) : new PageHistoryTable(1 << BHRSize, SCSize);
+        PAPHT = dense
+                ? new DensePerAddressPageHistoryTable(PC_SELECTOR_SIZE, 1 << BHRSize, SCSize)
+                : new PerAddressPageHistoryTable(PC_SELECTOR_SIZE, 1 << BHRSize, SCSize);
+
+        Workload workload = new Workload(BHRSize + PC_SELECTOR_SIZE);
+        PHTEntries = new Bit[Workload.SIZE][];
+        PAPHTEntries = workload.addressBits(BHRSize + PC_SELECTOR_SIZE);
+        for (int i = 0; i < Workload.SIZE; i++) {
+            PHTEntries[i] = Bit.toBits(workload.instructionAddresses[i], BHRSize);
+        }
+        block = Bit.toBits(1, SCSize);
+
+        // associate all the entries first, get and put of the mapped PAPHT need an associated PHT
+        for (int i = 0; i < Workload.SIZE; i++) {
+            PHT.setDefault(PHTEntries[i], block);
+            PAPHT.setDefault(PAPHTEntries[i], block);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void pageHistoryTableSetDefault(Blackhole blackhole) {
+        for (Bit[] entry : PHTEntries) blackhole.consume(PHT.setDefault(entry, block));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void pageHistoryTablePut() {
+        for (Bit[] entry : PHTEntries) PHT.put(entry, block);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void pageHistoryTableGet(Blackhole blackhole) {
+        for (Bit[] entry : PHTEntries) blackhole.consume(PHT.get(entry));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void perAddressPageHistoryTableSetDefault(Blackhole blackhole) {
+        for (Bit[] entry : PAPHTEntries) blackhole.consume(PAPHT.setDefault(entry, block));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void perAddressPageHistoryTablePut() {
+        for (Bit[] entry : PAPHTEntries) PAPHT.put(entry, block);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.SIZE)
+    public void perAddressPageHistoryTableGet(Blackhole blackhole) {
+        for (Bit[] entry : PAPHTEntries) blackhole.consume(PAPHT.get(entry));
+    }
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import utils.Bit;
+
+import java.util.SplittableRandom;
+
+/**
+ * a seeded block of branches which is shared by the benchmarks. a quarter of the branches come from a small
+ * set of hot addresses and the outcomes are biased to taken, so the tables see both hits and misses.
+ */
+final class Workload {
+    static final int SIZE = 4096;
+    static final long SEED = 0x5EED;
+
+    final long[] instructionAddresses = new long[SIZE];
+    final boolean[] outcomes = new boolean[SIZE];
+
+    Workload(int addressSize) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long mask = addressSize == 64 ? -1L : (1L << addressSize) - 1;
+        long[] hot = new long[16];
+        for (int i = 0; i < hot.length; i++) hot[i] = random.nextLong() & mask;
+
+        for (int i = 0; i < SIZE; i++) {
+            instructionAddresses[i] = random.nextInt(4) == 0 ? hot[random.nextInt(hot.length)] : random.nextLong() & mask;
+            outcomes[i] = random.nextInt(10) < 7;
+        }
+    }
+
+    /**
+     * @return the addresses as bit arrays of the given size
+     */
+    Bit[][] addressBits(int size) {
+        Bit[][] bits = new Bit[SIZE][];
+        for (int i = 0; i < SIZE; i++) bits[i] = Bit.toBits(instructionAddresses[i], size);
+        return bits;
+    }
+}
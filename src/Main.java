@@ -1,12 +1,19 @@
 import predictors.BranchInstruction;
 import predictors.BranchPredictor;
+import predictors.CompactBranchInstruction;
 import predictors.GAp.GAp;
 import predictors.GAs.GAs;
 import predictors.PAg.PAg;
 import predictors.PAp.PAp;
+import simulation.DecoupledReplay;
+import trace.BinaryTraceReader;
+import trace.CompressedTraceReader;
 import utils.Bit;
 import utils.BranchResult;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 // Press Shift twice to open the Search Everywhere dialog and type `show whitespaces`,
 // then press Enter. You can now see whitespace characters in your code.
 public class Main {
@@ -25,12 +32,42 @@ public class Main {
         return br;
     }
 
-    public static void main(String[] args) {
+    public static BranchResult predictAndUpdate(BranchPredictor predictor, CompactBranchInstruction branchInstruction, BranchResult actual, boolean debug) {
+        BranchResult br = predictor.predict(branchInstruction);
+        if (debug) {
+            System.out.println("The predication is : " + br);
+            System.out.println("Before Update: \n" + predictor.monitor());
+        }
+        predictor.update(branchInstruction, actual);
+        if (debug)
+            System.out.println("After Update: \n" + predictor.monitor());
+
+        return br;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
         PAp pAp = new PAp(4, 2, 4);
 
-        Bit[] opcode;
-        Bit[] instructionAddress;
-        Bit[] jumpAddress;
+        // replay a compressed trace if a .bptz trace file is given (decompressed on another thread)
+        if (args.length > 0 && args[0].endsWith(".bptz")) {
+            try (CompressedTraceReader reader = new CompressedTraceReader(Path.of(args[0]))) {
+                long hits = new DecoupledReplay().replay(reader, pAp);
+                System.out.println("hit rate is equal to : " + ((double) hits / reader.getRecordCount()));
+            }
+            return;
+        }
+
+        // replay a binary trace if a trace file is given
+        if (args.length > 0) {
+            try (BinaryTraceReader reader = new BinaryTraceReader(Path.of(args[0]))) {
+                long hits = reader.replay(pAp);
+                System.out.println("hit rate is equal to : " + ((double) hits / reader.getRecordCount()));
+            }
+            return;
+        }
+
+        // the instruction is reused for all the branches
+        CompactBranchInstruction bi = new CompactBranchInstruction(6, 4, 16);
 
 
         double hit = 0;
@@ -39,18 +76,10 @@ public class Main {
         for (int i = 0; i < total; i++) {
 
 
-            opcode = getRandomBitSerial(6);
-            instructionAddress = getRandomBitSerial(4);
-            jumpAddress = getRandomBitSerial(16);
-
-            BranchInstruction bi = new BranchInstruction(
-                    opcode,
-                    instructionAddress,
-                    jumpAddress
-            );
+            bi.set(getRandomBits(6), getRandomBits(4), getRandomBits(16));
 
             BranchResult br = getRandomBR();
-            System.out.println("PC value is: " + Bit.arrayToString(bi.getInstructionAddress()) + " Branch result is: " + br);
+            System.out.println("PC value is: " + Bit.toBinaryString(bi.getInstructionAddress(), 4) + " Branch result is: " + br);
             BranchResult pbr = predictAndUpdate(pAp, bi, br, false);
             if (br == pbr) {
                 hit++;
@@ -64,13 +93,10 @@ public class Main {
 
     }
 
-    private static Bit[] getRandomBitSerial(int size) {
-        Bit[] rPC = new Bit[size];
-        for (int i = 0; i < size; i++) {
-            Bit b = Math.random() > 0.5 ? Bit.ONE : Bit.ZERO;
-            rPC[i] = b;
-        }
-        return rPC;
+    private static int getRandomBits(int size) {
+        int value = 0;
+        for (int i = 0; i < size; i++) value = (value << 1) | (Math.random() > 0.5 ? 1 : 0);
+        return value;
     }
 
     private static BranchResult getRandomBR() {
@@ -4,68 +4,127 @@ package devices;
 import utils.Bit;
 import utils.CountMode;
 
-import java.util.Arrays;
-
 public final class CombinationalLogic {
+    /**
+     * the biggest counter which has a precomputed transition table
+     */
+    public static final int MAX_TABLE_COUNTER_SIZE = 8;
+
+    // transition tables of each mode and counter size. the next value of counter c is saved in
+    // index (c << 1 | up) of the table
+    private static final byte[][][] TRANSITIONS = new byte[CountMode.values().length][MAX_TABLE_COUNTER_SIZE + 1][];
+
+    static {
+        for (CountMode mode : CountMode.values()) {
+            for (int size = 1; size <= MAX_TABLE_COUNTER_SIZE; size++) {
+                byte[] table = new byte[2 << size];
+                for (int value = 0; value < (1 << size); value++) {
+                    table[value << 1] = (byte) next(value, size, false, mode);
+                    table[(value << 1) | 1] = (byte) next(value, size, true, mode);
+                }
+                TRANSITIONS[mode.ordinal()][size] = table;
+            }
+        }
+    }
+
     private CombinationalLogic() {
         // make the constructor private to avoid instantiating.
     }
 
+    /**
+     * Count the counter up or down based on the counter mode.
+     *
+     * @param input the comb logic input (the leftmost bit is the most significant bit)
+     * @param up    the counter direction
+     * @param mode  the counter mode
+     * @return the next value of the counter
+     */
     public static Bit[] count(Bit[] input, boolean up, CountMode mode) {
-        if (mode == CountMode.SATURATING) {
-            return saturateCount(input, up);
-        } else throw new UnsupportedOperationException();
+        int len = input.length;
+        return Bit.toBits(len <= MAX_TABLE_COUNTER_SIZE
+                ? count(Bit.toNumber(input), len, up, mode)
+                : next(Bit.toNumber(input), len, up, mode), len);
     }
 
-
     /**
-     * Increments or decrements the saturating counter based on the value of the input bit.
-     * If the input bit is 1, the counter is incremented by setting the rightmost 0 bit to 1
-     * and all subsequent bits to 0. If all bits are already set to 1, then the counter saturates
-     * at the maximum value. If the input bit is 0, the counter is decremented by setting the
-     * rightmost 1 bit to 0 and all subsequent bits to 1. If all bits are already set to 0, then
-     * the counter saturates at the minimum value.
+     * Count the integer value of a counter up or down based on the counter mode.
      *
-     * @param input the comb logic input
+     * @param value the counter value
+     * @param size  the number of bits of the counter. counters up to 8 bits use the transition tables
      * @param up    the counter direction
+     * @param mode  the counter mode
+     * @return the next value of the counter
      */
-    private static Bit[] saturateCount(Bit[] input, boolean up) {
-        // counter bits number
-        int len = input.length;
+    public static int count(int value, int size, boolean up, CountMode mode) {
+        if (size > MAX_TABLE_COUNTER_SIZE) return next(value, size, up, mode);
+        return TRANSITIONS[mode.ordinal()][size][(value << 1) | (up ? 1 : 0)] & 0xFF;
+    }
 
-        // convert to decimal
-        int numberInDecimal = Bit.toNumber(input);
+    /**
+     * hash N bits to a K bit value by XORing the bits of the value in K bit chunks. the first (leftmost) bit
+     * of each chunk is XORed into the first bit of the hash. This is the integer form of the hash which
+     * the predictors apply on the branch address bits.
+     *
+     * @param value the bits which are hashed (only the lowest {@code size} bits are used)
+     * @param size  the number of bits which is hashed (M)
+     * @param KSize the number of bits of the hash value (K)
+     * @return the hash value
+     */
+    public static int hash(long value, int size, int KSize) {
+        if (KSize < 1) throw new IllegalArgumentException("hash size must be positive");
 
-        // if the counter is saturated (upper limit) then return the same bits.
-        if (numberInDecimal == Math.pow(2, len) - 1 && up) {
-            return Arrays.copyOf(input, len);
-        }
-        // if the counter is saturated (lower limit) then return the same bits.
-        else if (numberInDecimal == 0 && !up) {
-            Bit[] zeroFilled = new Bit[len];
-            Arrays.fill(zeroFilled, Bit.ZERO);
-            return zeroFilled;
-        }
-        // count up or down
-        else {
+        long mask = (1L << KSize) - 1;
+        long hash = 0;
+        int i = 0;
 
-            if (up) numberInDecimal++;
-            else numberInDecimal--;
+        // XOR the complete K bit chunks from the leftmost bit
+        for (; i + KSize <= size; i += KSize) hash ^= (value >>> (size - i - KSize)) & mask;
 
-            // Convert the updated value to a binary string representation
-            String binaryString = Integer.toBinaryString(numberInDecimal);
+        // the remaining bits are XORed into the first bits of the hash
+        int remaining = size - i;
+        if (remaining > 0) hash ^= (value & ((1L << remaining) - 1)) << (KSize - remaining);
 
-            // Create a Bit array from the binary string
-            Bit[] bits = new Bit[len];
-            for (int i = 0; i < len; i++) {
-                if (i < len - binaryString.length()) {
-                    bits[i] = Bit.ZERO;
-                } else {
-                    bits[i] = binaryString.charAt(i - (len - binaryString.length())) == '1' ? Bit.ONE : Bit.ZERO;
-                }
-            }
+        return (int) hash;
+    }
 
-            return bits;
+    /**
+     * Get the transition table of a counter. the next value of the counter c is saved in
+     * index (c << 1 | up) of the table as an unsigned byte. the table is shared, so it must not be modified.
+     *
+     * @param size the number of bits of the counter (at most 8)
+     * @param mode the counter mode
+     * @return the transition table
+     */
+    public static byte[] getTransitions(int size, CountMode mode) {
+        return TRANSITIONS[mode.ordinal()][size];
+    }
+
+    /**
+     * Compute the next value of a counter.
+     * SATURATING: count up or down and stay at the upper or lower limit when the counter is saturated.
+     * UP_DOWN: count up or down and wrap around at the upper or lower limit.
+     * JOHNSON: a twisted ring counter. counting up shifts the counter to right and puts the complement of the
+     * rightmost bit in the leftmost bit. counting down is the reverse operation.
+     *
+     * @param value the counter value
+     * @param size  the number of bits of the counter
+     * @param up    the counter direction
+     * @param mode  the counter mode
+     * @return the next value of the counter
+     */
+    private static int next(int value, int size, boolean up, CountMode mode) {
+        int max = (1 << size) - 1;
+        switch (mode) {
+            case SATURATING:
+                if (up) return value == max ? max : value + 1;
+                else return value == 0 ? 0 : value - 1;
+            case UP_DOWN:
+                return (up ? value + 1 : value - 1) & max;
+            case JOHNSON:
+                if (up) return (value >>> 1) | ((~value & 1) << (size - 1));
+                else return ((value << 1) & max) | (~(value >>> (size - 1)) & 1);
+            default:
+                throw new UnsupportedOperationException();
         }
     }
 }
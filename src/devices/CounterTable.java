@@ -0,0 +1,103 @@
+package devices;
+
+import utils.CountMode;
+import utils.Monitorable;
+import utils.Snapshotable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.PrimitiveIterator;
+
+/*
+simple counter table interface
+
+the table is addressed by the integer value of the entry and each block holds
+the value of a saturating counter. read the functions documentation if anything is unclear
+
+ */
+public interface CounterTable extends Monitorable, Snapshotable {
+    /**
+     * return the counter which is saved in the entry. If the entry is not associated with any block
+     * then a zero block is mapped to the entry first.
+     *
+     * @param index the integer value of the address
+     * @return the counter value which is saved in the address
+     */
+    int read(long index);
+
+    /**
+     * @param index the integer value of the address
+     * @param value the counter value which is saved in the address
+     */
+    void write(long index, int value);
+
+    /**
+     * count the counter which is saved in the entry up or down in place.
+     *
+     * @param index the integer value of the address
+     * @param up    the counter direction
+     * @param mode  the counter mode
+     * @return the new counter value
+     */
+    default int count(long index, boolean up, CountMode mode) {
+        int value = CombinationalLogic.count(read(index), getBlockSize(), up, mode);
+        write(index, value);
+        return value;
+    }
+
+    /**
+     * @param index the integer value of the address
+     * @return true if any block is associated with the address
+     */
+    boolean isAllocated(long index);
+
+    /**
+     * @return the number of entries in the table
+     */
+    long getSize();
+
+    /**
+     * @return the number of bits in a block
+     */
+    int getBlockSize();
+
+    /**
+     * @return the indices of the entries which are associated with a block in ascending order
+     */
+    PrimitiveIterator.OfLong allocatedIndices();
+
+    /**
+     * clear the table or simply remove all the entries
+     */
+    void clear();
+
+    /**
+     * save the size of the table and the associated entries
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state can not be written
+     */
+    @Override
+    default void save(DataOutput out) throws IOException {
+        out.writeLong(getSize());
+        out.writeInt(getBlockSize());
+        Snapshots.writeEntries(out, allocatedIndices(), this::read);
+    }
+
+    /**
+     * replace the entries of the table with the saved entries. the table is not changed if the entries can not be read.
+     *
+     * @param in the source of the state
+     * @throws IOException if the state can not be read, the saved table has another size or a block is too wide
+     */
+    @Override
+    default void restore(DataInput in) throws IOException {
+        long size = in.readLong();
+        int blockSize = in.readInt();
+        if (size != getSize() || blockSize != getBlockSize())
+            throw new IOException("snapshot table size does not match the table");
+
+        Snapshots.readEntries(in, size, blockSize, this::clear, (index, value) -> write(index, (int) value));
+    }
+}
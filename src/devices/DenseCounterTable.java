@@ -0,0 +1,96 @@
+package devices;
+
+/*
+ * our dense counter table model
+ * read below assumptions about the storage of the dense tables
+ * ------------------------------------------------------
+ * ASSUMPTIONS:
+ * 1) all the blocks of the table are allocated in a single primitive array when the table is initialized
+ * and the integer entry is the index into the array (so a dense table has at most an int number of entries).
+ *
+ * 2) each block is saved as a number (at most 8 bits). the blocks which are not associated yet are
+ * tracked in a separate bit set and reading a block associates it with the zero block.
+ *
+ * 3) the integer access methods are final, so a caller which holds a dense table calls them directly
+ * whatever the layout of the table (single PHT or PHT per address) is.
+ * -------------------------------------------------------
+ */
+
+import utils.CountMode;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+public abstract class DenseCounterTable implements CounterTable {
+    private final int nRows; // number of entries of the table
+    private final int blockSize; // number of bits in a block
+    private final byte[] blocks; // value of the block for each entry
+    private final long[] allocated; // bit set of the entries which are associated with a block
+
+    /**
+     * @param nRows     the number of entries of the table
+     * @param blockSize the number of bits of a block (at most 8)
+     */
+    protected DenseCounterTable(int nRows, int blockSize) {
+        if (blockSize < 1 || blockSize > 8)
+            throw new IllegalArgumentException("dense table block size must be between 1 and 8 bits");
+
+        this.nRows = nRows;
+        this.blockSize = blockSize;
+        this.blocks = new byte[nRows];
+        this.allocated = new long[(nRows + 63) >>> 6];
+    }
+
+    @Override
+    public final int read(long index) {
+        // the zero block is the default value, so only the entry must be marked as associated
+        int i = (int) index;
+        allocated[i >>> 6] |= 1L << i;
+        return blocks[i] & 0xFF;
+    }
+
+    @Override
+    public final void write(long index, int value) {
+        int i = (int) index;
+        allocated[i >>> 6] |= 1L << i;
+        blocks[i] = (byte) value;
+    }
+
+    @Override
+    public final int count(long index, boolean up, CountMode mode) {
+        // look up the next value in the transition table and save it in place
+        byte[] transitions = CombinationalLogic.getTransitions(blockSize, mode);
+        int i = (int) index;
+        allocated[i >>> 6] |= 1L << i;
+        blocks[i] = transitions[((blocks[i] & 0xFF) << 1) | (up ? 1 : 0)];
+        return blocks[i] & 0xFF;
+    }
+
+    @Override
+    public final boolean isAllocated(long index) {
+        int i = (int) index;
+        return (allocated[i >>> 6] & (1L << i)) != 0;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong allocatedIndices() {
+        return LongStream.range(0, nRows).filter(this::isAllocated).iterator();
+    }
+
+    @Override
+    public final long getSize() {
+        return nRows;
+    }
+
+    @Override
+    public final int getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(blocks, (byte) 0);
+        Arrays.fill(allocated, 0L);
+    }
+}
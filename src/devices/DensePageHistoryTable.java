@@ -0,0 +1,146 @@
+package devices;
+
+/*
+ * our dense Page History Table model
+ * read below assumptions about pre-defined dense PHT
+ * ------------------------------------------------------
+ * ASSUMPTIONS:
+ * 1) the PHT has the same behaviour as PageHistoryTable but all the blocks are allocated
+ * in a primitive array when the table is initialized.
+ *
+ * 2) the entry of the PHT is used as an integer index into the array. i.e. the entry 0101 selects
+ * the block number 5.
+ *
+ * 3) each block is saved as a number (at most 8 bits). the blocks which are not associated yet are
+ * tracked in a separate bit set, so get returns null for them just like the mapped PHT.
+ *
+ * 4) the data (bit array) which is saved in the cache is not the data (bit array) that put or
+ * set default is used but a copy of it.
+ *
+ * 5) there is no checker if the in value of PHT entry is bigger than the cache last entry address.
+ * the array bound check is the only guard.
+ * -------------------------------------------------------
+ */
+
+import utils.Bit;
+
+public class DensePageHistoryTable extends DenseCounterTable implements Cache<Bit[], Bit[]> {
+
+    private final int nColumns; // number of bits in a block
+    private final int addressSize; // number of bits in an entry
+
+
+    public DensePageHistoryTable(int nRows, int nColumns) {
+        super(nRows, nColumns);
+
+        this.nColumns = nColumns;
+        this.addressSize = addressSize(nRows);
+    }
+
+    /**
+     * Get the value associated with the given key from the cache.
+     *
+     * @param entry the key to look up in the cache
+     * @return the value associated with the key, or null if the key is not found
+     */
+    @Override
+    public Bit[] get(Bit[] entry) {
+        int index = Bit.toNumber(entry);
+        if (!isAllocated(index)) return null;
+        return Bit.toBits(read(index), nColumns);
+    }
+
+    /**
+     * Insert a new key-value pair into the cache.
+     *
+     * @param entry the key to insert into the cache
+     * @param value the value to associate with the key
+     * @throws RuntimeException if the length of the block is not equal to nColumns
+     */
+    @Override
+    public void put(Bit[] entry, Bit[] value) {
+        // Check that the length of the block is equal to nColumns
+        if (value.length != nColumns) {
+            throw new RuntimeException("invalid number of bits for cache block");
+        }
+
+        write(Bit.toNumber(entry), Bit.toNumber(value));
+    }
+
+    /**
+     * put the value in the entry if the entry is not associated to any block.
+     *
+     * @param entry the address which is selected to put the data in it
+     * @param value the data which is saved in address (key) if the key is not mapped to any not-null data
+     */
+    @Override
+    public void putIfAbsent(Bit[] entry, Bit[] value) {
+        if (!isAllocated(Bit.toNumber(entry))) put(entry, value);
+    }
+
+    /**
+     * Returns the value associated with the given key, or a default value if the key is not found in the cache.
+     * If the key is not found in the cache, the default value is inserted into the cache.
+     *
+     * @param entry        the address to look up in the cache
+     * @param defaultValue the default value to insert into the cache if the key is not found
+     * @return the value associated with the key, or the default value if the key is not found
+     */
+    @Override
+    public Bit[] setDefault(Bit[] entry, Bit[] defaultValue) {
+        if (defaultValue == null) throw new RuntimeException("block can not be null");
+
+        putIfAbsent(entry, defaultValue);
+        return get(entry);
+    }
+
+    /**
+     * Returns a string representation of the current state of the PHT.
+     *
+     * @return a table with the address and block data for each associated entry in the PHT
+     */
+    @Override
+    public String monitor() {
+        return monitor(this, 0, (int) getSize(), addressSize);
+    }
+
+    /**
+     * Format the associated entries of a counter table in the same layout as PageHistoryTable.
+     *
+     * @param table       the table which is monitored
+     * @param from        the first index (inclusive)
+     * @param to          the last index (exclusive)
+     * @param addressSize the number of bits which is shown for each address
+     * @return a table with the address and block data for each associated entry in the range
+     */
+    static String monitor(CounterTable table, int from, int to, int addressSize) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("+----------------------------------+\n");
+        sb.append(String.format("| %-19s | %-10s |\n", "Address", "Block"));
+        sb.append("|---------------------|------------|\n");
+
+        for (int index = from; index < to; index++) {
+            if (!table.isAllocated(index)) continue;
+
+            String address = Bit.toBinaryString(index - from, addressSize);
+            String block = Bit.toBinaryString(table.read(index), table.getBlockSize());
+            if (address.length() > 16) {
+                String address16 = address.substring(0, 16);
+                sb.append(String.format("| %-16s... | %-10s |\n", address16, block));
+            } else {
+                sb.append(String.format("| %-19s | %-10s |\n", address, block));
+            }
+            sb.append("+----------------------------------+\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @param nRows number of entries
+     * @return the number of bits which is needed for addressing all the entries
+     */
+    static int addressSize(long nRows) {
+        return nRows <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(nRows - 1);
+    }
+}
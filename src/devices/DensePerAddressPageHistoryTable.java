@@ -0,0 +1,170 @@
+package devices;
+
+/*
+ * Our dense Per Address Page History Table
+ * read below assumptions about pre-defined dense PAPHT
+ * ------------------------------------------------------
+ * ASSUMPTIONS:
+ * 1) the PAPHT has the same behaviour as PerAddressPageHistoryTable but all the PHTs are laid out
+ * one after another in a single primitive array which is allocated when the table is initialized.
+ *
+ * 2) the entry of the PAPHT is a number of bits which the first # bits select the PHT and other bits select
+ * the block. the integer index of the entry is (selector * rows per PHT + row).
+ *
+ * 3) each block is saved as a number (at most 8 bits). the blocks which are not associated yet are
+ * tracked in a separate bit set, so get returns null for them.
+ *
+ * 4) the data (bit array) which is saved in the cache is not the data (bit array) that put or
+ * set default is used but a copy of it.
+ *
+ * 5) there is no checker if the in value of PAPHT entry is bigger than the cache last entry address.
+ * the array bound check is the only guard.
+ * ------------------------------------------------------
+ */
+
+import utils.Bit;
+
+public class DensePerAddressPageHistoryTable extends DenseCounterTable implements Cache<Bit[], Bit[]> {
+
+    private final int nPCSelector; // number of bits from pc which determine which PHT in PAPHT must be used.
+    private final int nRowsPerPHT; // number of rows per PHT
+    private final int nColumnsPerBlock; // number of columns per block in a PHT
+
+
+    public DensePerAddressPageHistoryTable(int nPCSelector, int nRowsPerPHT, int nColumnsPerBlock) {
+        super(size(nPCSelector, nRowsPerPHT), nColumnsPerBlock);
+
+        this.nPCSelector = nPCSelector;
+        this.nRowsPerPHT = nRowsPerPHT;
+        this.nColumnsPerBlock = nColumnsPerBlock;
+    }
+
+    /**
+     * @return the number of entries of all the PHTs
+     * @throws IllegalArgumentException if the PHTs do not fit in a single array
+     */
+    private static int size(int nPCSelector, int nRowsPerPHT) {
+        long size = (1L << nPCSelector) * nRowsPerPHT;
+        if (nPCSelector > 30 || size > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("dense PAPHT is too large to be allocated");
+        return (int) size;
+    }
+
+    /**
+     * @param entry think of key as address. First nPCSelector bits is used for finding the associated PHT
+     *              next bits is used to find the block.
+     * @return the value associated with the key, or null if the key is not found
+     */
+    @Override
+    public Bit[] get(Bit[] entry) {
+        int index = getIndex(entry);
+        if (!isAllocated(index)) return null;
+        return Bit.toBits(read(index), nColumnsPerBlock);
+    }
+
+    /**
+     * Map the value to the entry.
+     *
+     * @param entry the address which is selected to put the data in it
+     * @param value the data which is saved in address (key)
+     */
+    @Override
+    public void put(Bit[] entry, Bit[] value) {
+        // Check that the length of the block is equal to nColumns
+        if (value.length != nColumnsPerBlock) {
+            throw new RuntimeException("invalid number of bits for cache block");
+        }
+
+        write(getIndex(entry), Bit.toNumber(value));
+    }
+
+    /**
+     * If no block is mapped to the entry then map the default value to the PAPHT
+     *
+     * @param entry the address which is selected to put the data in it
+     * @param value the data which is saved in address (key) if the key is not mapped to any not-null data
+     */
+    @Override
+    public void putIfAbsent(Bit[] entry, Bit[] value) {
+        if (!isAllocated(getIndex(entry))) put(entry, value);
+    }
+
+    /**
+     * @param entry        the address
+     * @param defaultValue default value if the address is not associated with any block in cache
+     * @return the old value if exist otherwise the default value
+     */
+    @Override
+    public Bit[] setDefault(Bit[] entry, Bit[] defaultValue) {
+        if (defaultValue == null) throw new RuntimeException("block can not be null");
+
+        putIfAbsent(entry, defaultValue);
+        return get(entry);
+    }
+
+    /**
+     * @param selector the integer value of the PHT selector
+     * @param row      the integer value of the row in the selected PHT
+     * @return the counter value which is saved in the address
+     */
+    public int read(int selector, int row) {
+        return read(selector * nRowsPerPHT + row);
+    }
+
+    /**
+     * @param selector the integer value of the PHT selector
+     * @param row      the integer value of the row in the selected PHT
+     * @param value    the counter value which is saved in the address
+     */
+    public void write(int selector, int row, int value) {
+        write(selector * nRowsPerPHT + row, value);
+    }
+
+    /**
+     * Get the integer index of the entry without copying the selector and block bits
+     *
+     * @param entry the address
+     * @return selector * rows per PHT + row
+     */
+    private int getIndex(Bit[] entry) {
+        int selector = 0;
+        for (int i = 0; i < nPCSelector; i++) selector = (selector << 1) | (entry[i] == Bit.ONE ? 1 : 0);
+
+        int row = 0;
+        for (int i = nPCSelector; i < entry.length; i++) row = (row << 1) | (entry[i] == Bit.ONE ? 1 : 0);
+
+        return selector * nRowsPerPHT + row;
+    }
+
+    /**
+     * Returns a string representing the current state of the Per Address Prediction History Table.
+     * The string includes a separate monitor report for each PHT which has at least one associated block,
+     * along with the selector string for each PHT.
+     *
+     * @return a string representing the current state of the Per Address Prediction History Table
+     */
+    @Override
+    public String monitor() {
+        int rowAddressSize = DensePageHistoryTable.addressSize(nRowsPerPHT);
+        StringBuilder sb = new StringBuilder();
+        for (int selector = 0; selector < (1 << nPCSelector); selector++) {
+            int from = selector * nRowsPerPHT;
+            int to = from + nRowsPerPHT;
+            if (!hasAllocatedBlock(from, to)) continue;
+
+            sb.append("PHT for selector: ");
+            sb.append(Bit.toBinaryString(selector, nPCSelector));
+            sb.append("\n");
+            sb.append(DensePageHistoryTable.monitor(this, from, to, rowAddressSize));
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    private boolean hasAllocatedBlock(int from, int to) {
+        for (int index = from; index < to; index++) {
+            if (isAllocated(index)) return true;
+        }
+        return false;
+    }
+}
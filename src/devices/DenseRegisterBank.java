@@ -0,0 +1,191 @@
+package devices;
+
+/*
+ * Our Dense Register Bank Model
+ * read below assumptions about pre-defined dense Register Bank
+ * ------------------------------------------------------
+ * ASSUMPTIONS:
+ * 1) The bank has the same behaviour as RegisterBank but all the registers are saved in a
+ * primitive long array which is allocated when the bank is initialized. therefore, the register
+ * size can not be more than 64 bits.
+ *
+ * 2) The selector is used as an integer index into the array. i.e. the selector 0101 selects
+ * the register number 5. The registers which are not touched yet are tracked in a separate bit set,
+ * so the monitor shows the same registers as the lazy bank.
+ *
+ * 3) The read action returns a copy of the register. use insert to shift a bit into a register in place.
+ * -------------------------------------------------------
+ */
+
+import utils.Bit;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+public class DenseRegisterBank implements ShiftRegisterBank {
+    private final int registerSize;
+    private final int selectorSize;
+    private final long msb; // the mask of the leftmost bit of a register
+    private final long mask; // the mask of all the bits of a register
+    private final long[] registers; // value of each register
+    private final long[] allocated; // bit set of the registers which are initialized
+
+    /**
+     * @param selectorSize number of bits which is needed for selecting a register from register bank
+     * @param registerSize number of bits which is used for each register in register bank
+     * @throws IllegalArgumentException if the sizes are not in legal bound
+     */
+    public DenseRegisterBank(int selectorSize, int registerSize) {
+        if (registerSize < 1 || registerSize > 64)
+            throw new IllegalArgumentException("dense register bank register size must be between 1 and 64 bits");
+        if (selectorSize < 0 || selectorSize > 30)
+            throw new IllegalArgumentException("dense register bank is too large to be allocated");
+
+        this.registerSize = registerSize;
+        this.selectorSize = selectorSize;
+        this.msb = 1L << (registerSize - 1);
+        this.mask = registerSize == 64 ? -1L : (1L << registerSize) - 1;
+        this.registers = new long[1 << selectorSize];
+        this.allocated = new long[((1 << selectorSize) + 63) >>> 6];
+    }
+
+    /**
+     * read the specified register from the register bank.
+     *
+     * @param selector the value which is used for reading from the memory bank
+     * @return a shift register associated to that address ( a copy of it )
+     * @throws IllegalArgumentException if the selector is not in legal bound.
+     */
+    @Override
+    public ShiftRegister read(Bit[] selector) {
+        ShiftRegister register = new LongShiftRegister("r", registerSize, null);
+        register.load(Bit.toBits(getValue(getSelector(selector)), registerSize));
+        return register;
+    }
+
+    /**
+     * write the value on a specific register.
+     *
+     * @param selector      the value which is used for reading from the memory bank
+     * @param registerValue the value which is written on specific register.
+     * @throws IllegalArgumentException if the selector is not in legal bound or the registerValue size is not as same as
+     *                                  register size
+     */
+    @Override
+    public void write(Bit[] selector, Bit[] registerValue) {
+        if (registerValue.length != this.registerSize)
+            throw new IllegalArgumentException("registerValue size is not as same as register size");
+
+        load(getSelector(selector), Bit.toLong(registerValue));
+    }
+
+    /**
+     * insert a bit in the specific register in place.
+     *
+     * @param selector the value which is used for selecting the register
+     * @param bit      the bit which is inserted in the register
+     * @throws IllegalArgumentException if the selector is not in legal bound.
+     */
+    @Override
+    public void insert(Bit[] selector, Bit bit) {
+        insert(getSelector(selector), bit);
+    }
+
+    /**
+     * @param selector the integer value of the selector
+     * @return the integer value of the register. the register is initialized if it is not touched yet.
+     */
+    @Override
+    public long getValue(int selector) {
+        allocated[selector >>> 6] |= 1L << selector;
+        return registers[selector];
+    }
+
+    /**
+     * @param selector the integer value of the selector
+     * @param value    the value which is written on the register (only the lowest registerSize bits are used)
+     */
+    @Override
+    public void load(int selector, long value) {
+        allocated[selector >>> 6] |= 1L << selector;
+        registers[selector] = value & mask;
+    }
+
+    /**
+     * shift the register to right and put the bit in its leftmost position
+     *
+     * @param selector the integer value of the selector
+     * @param bit      the bit which is inserted in the register
+     */
+    @Override
+    public void insert(int selector, Bit bit) {
+        allocated[selector >>> 6] |= 1L << selector;
+        registers[selector] = (registers[selector] >>> 1) | (bit == Bit.ONE ? msb : 0);
+    }
+
+    /**
+     * @param selector the integer value of the selector
+     * @return true if the register is initialized
+     */
+    @Override
+    public boolean isAllocated(int selector) {
+        return (allocated[selector >>> 6] & (1L << selector)) != 0;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt allocatedSelectors() {
+        return IntStream.range(0, registers.length).filter(this::isAllocated).iterator();
+    }
+
+    @Override
+    public int getSelectorSize() {
+        return selectorSize;
+    }
+
+    @Override
+    public int getRegisterSize() {
+        return registerSize;
+    }
+
+    /**
+     * clear all the registers
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(registers, 0L);
+        Arrays.fill(allocated, 0L);
+    }
+
+    private int getSelector(Bit[] selector) {
+        // check the arguments
+        if (selector.length != selectorSize)
+            throw new IllegalArgumentException("register bank selector is not valid");
+
+        return Bit.toNumber(selector);
+    }
+
+    @Override
+    public String monitor() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("+----------------------------------+\n");
+        sb.append(String.format("| %-19s | %-10s |\n", "Register Number", "Value"));
+        sb.append("|---------------------|------------|\n");
+
+        for (int selector = 0; selector < registers.length; selector++) {
+            if (!isAllocated(selector)) continue;
+
+            String regNumber = Bit.toBinaryString(selector, selectorSize);
+            String block = Bit.toBinaryString(registers[selector], registerSize);
+            if (regNumber.length() > 16) {
+                String address16 = regNumber.substring(0, 16);
+                sb.append(String.format("| %-16s... | %-10s |\n", address16, block));
+            } else {
+                sb.append(String.format("| %-19s | %-10s |\n", regNumber, block));
+            }
+            sb.append("+----------------------------------+\n");
+        }
+
+        return sb.toString();
+    }
+}
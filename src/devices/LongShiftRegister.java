@@ -0,0 +1,134 @@
+package devices;
+
+/*
+ * our long backed serial-in, parallel-out register Model
+ * read below assumption about pre-defined Register
+ * ------------------------------------------------------
+ * ASSUMPTIONS
+ * 1) The register behaves exactly like SIPORegister. the only difference is that
+ * the data is saved in the bits of a long value, so at most 64 bits can be saved.
+ *
+ * 2) The leftmost bit of the register (index 0 of the read array) is the most
+ * significant bit of the long value. insert shifts the value to right and puts
+ * the new bit in the most significant position.
+ *
+ * 3) data of register can be read in parallel manner or as an integer value without
+ * any allocation
+ * -------------------------------------------------------
+ */
+
+import utils.Bit;
+
+import java.util.Collections;
+
+public class LongShiftRegister implements ShiftRegister {
+    private final int size;
+    private final long msb; // the mask of the leftmost bit of the register
+    private long register;
+    public final String name;
+
+    /**
+     * Creates a new register with the specified size and default value.
+     * If default_value is null, the register is zero-filled by default.
+     *
+     * @param name         the register name
+     * @param size         the size of the register (between 1 and 64)
+     * @param defaultValue the default value to initialize the register with
+     * @throws IllegalArgumentException if the size is not in legal bound
+     */
+    public LongShiftRegister(String name, int size, Bit[] defaultValue) {
+        if (size < 1 || size > 64)
+            throw new IllegalArgumentException("long shift register size must be between 1 and 64 bits");
+
+        this.name = name;
+        this.size = size;
+        this.msb = 1L << (size - 1);
+        if (defaultValue == null) {
+            // fill all the register with zero values
+            clear();
+        } else {
+            // fill all the register with default value
+            load(defaultValue);
+        }
+    }
+
+    @Override
+    public Bit[] read() {
+        return Bit.toBits(register, size);
+    }
+
+    @Override
+    public long getValue() {
+        return register;
+    }
+
+    /**
+     * load data into register
+     *
+     * @param bits data to be load in register
+     */
+    @Override
+    public void load(Bit[] bits) {
+        long value = 0;
+        for (int i = 0; i < size; i++) value = (value << 1) | (bits[i] == Bit.ONE ? 1 : 0);
+        register = value;
+    }
+
+    /**
+     * load the integer value into register
+     *
+     * @param value data to be load in register
+     */
+    @Override
+    public void load(long value) {
+        register = size == 64 ? value : value & ((1L << size) - 1);
+    }
+
+    /**
+     * Inserts a new bit at the beginning of the register and shifts all existing bits
+     * to the right.
+     *
+     * @param bit the Bit enum representing the new bit to be inserted
+     */
+    @Override
+    public void insert(Bit bit) {
+        register = (register >>> 1) | (bit == Bit.ONE ? msb : 0);
+    }
+
+    @Override
+    public int getLength() {
+        return size;
+    }
+
+    /**
+     * clear the register and set the register value to 0
+     */
+    @Override
+    public void clear() {
+        register = 0;
+    }
+
+    /**
+     * Returns the contents of the register as a binary string.
+     * Each bit is represented as a 0 or 1 character.
+     *
+     * @return the binary string representation of the register
+     */
+    @Override
+    public String monitor() {
+        StringBuilder sb = new StringBuilder();
+        int registerWidth = size * 4; // each bit takes up 4 characters
+        int labelWidth = name.length();
+        int boxWidth = registerWidth + labelWidth + 2; // add 2 for the borders
+        int lastBarIndex = registerWidth + labelWidth;
+        String line = String.join("", Collections.nCopies(boxWidth, "-")); // create a line of dashes for the top and bottom borders
+        sb.append("+").append(line, 0, lastBarIndex + 2).append("+\n");
+        sb.append("|").append(name).append(" ");
+        for (int i = size - 1; i >= 0; i--) {
+            sb.append(" | ").append((register >>> i) & 1);
+        }
+        sb.append(" |\n");
+        sb.append("+").append(line, 0, lastBarIndex + 2).append("+\n");
+        return sb.toString();
+    }
+}
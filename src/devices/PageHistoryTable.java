@@ -25,18 +25,22 @@ import utils.Bit;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.TreeMap;
+import java.util.stream.LongStream;
 
-public class PageHistoryTable implements Cache<Bit[], Bit[]> {
+public class PageHistoryTable implements Cache<Bit[], Bit[]>, CounterTable {
 
-    private final int nRows; // number of PHT entries
+    private final long nRows; // number of PHT entries
     private final int nColumns; // number of bits in a block
+    private final int addressSize; // number of bits in an entry
     private final Map<String, Bit[]> PHT; // save entry and blocks
 
 
-    public PageHistoryTable(int nRows, int nColumns) {
+    public PageHistoryTable(long nRows, int nColumns) {
         this.nRows = nRows;
         this.nColumns = nColumns;
+        this.addressSize = DensePageHistoryTable.addressSize(nRows);
         this.PHT = new TreeMap<>();
     }
 
@@ -103,6 +107,46 @@ public class PageHistoryTable implements Cache<Bit[], Bit[]> {
         return get(entry);
     }
 
+    @Override
+    public int read(long index) {
+        Bit[] defaultBlock = new Bit[nColumns];
+        Arrays.fill(defaultBlock, Bit.ZERO);
+        return Bit.toNumber(setDefault(Bit.toBits(index, addressSize), defaultBlock));
+    }
+
+    @Override
+    public void write(long index, int value) {
+        put(Bit.toBits(index, addressSize), Bit.toBits(value, nColumns));
+    }
+
+    @Override
+    public boolean isAllocated(long index) {
+        return PHT.containsKey(Bit.toBinaryString(index, addressSize));
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong allocatedIndices() {
+        return indexStream().iterator();
+    }
+
+    /**
+     * @return the indices of the associated entries in ascending order
+     */
+    LongStream indexStream() {
+        // the keys are binary strings with the same length, so the order of the keys is the order of the indices
+        return PHT.keySet().stream().mapToLong(Snapshots::parseKey);
+    }
+
+    @Override
+    public long getSize() {
+        return nRows;
+    }
+
+    @Override
+    public int getBlockSize() {
+        return nColumns;
+    }
+
     /**
      * Clear all entries from the cache.
      */
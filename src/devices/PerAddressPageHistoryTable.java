@@ -25,21 +25,24 @@ import utils.Bit;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.TreeMap;
 
-public class PerAddressPageHistoryTable implements Cache<Bit[], Bit[]> {
+public class PerAddressPageHistoryTable implements Cache<Bit[], Bit[]>, CounterTable {
 
     private final int nPCSelector; // number of bits from pc which determine which PHT in PAPHT must be used.
-    private final int nRowsPerPHT; // number of rows per PHT
+    private final long nRowsPerPHT; // number of rows per PHT
     private final int nColumnsPerBlock; // number of columns per block in a PHT
+    private final int nBlockSelector; // number of bits which select the block in a PHT
     private final Map<String, Cache<Bit[], Bit[]>> PAPHT; // per address prediction history table. string represent the
     // PHT which must be used and the cache is the PHT associated to that slice of PC
 
 
-    public PerAddressPageHistoryTable(int nPCSelector, int nRowsPerPHT, int nColumnsPerBlock) {
+    public PerAddressPageHistoryTable(int nPCSelector, long nRowsPerPHT, int nColumnsPerBlock) {
         this.nPCSelector = nPCSelector;
         this.nRowsPerPHT = nRowsPerPHT;
         this.nColumnsPerBlock = nColumnsPerBlock;
+        this.nBlockSelector = DensePageHistoryTable.addressSize(nRowsPerPHT);
 
         // initialize the Per Address Predication History Table
         this.PAPHT = new TreeMap<>();
@@ -119,6 +122,73 @@ public class PerAddressPageHistoryTable implements Cache<Bit[], Bit[]> {
         return get(entry);
     }
 
+    /**
+     * @param index selector * rows per PHT + row
+     * @return the counter value which is saved in the address
+     * @throws UnsupportedOperationException if the entries of PAPHT are wider than 63 bits
+     */
+    @Override
+    public int read(long index) {
+        Bit[] defaultBlock = new Bit[nColumnsPerBlock];
+        Arrays.fill(defaultBlock, Bit.ZERO);
+        return Bit.toNumber(setDefault(getEntry(index), defaultBlock));
+    }
+
+    /**
+     * @param index selector * rows per PHT + row
+     * @param value the counter value which is saved in the address
+     * @throws UnsupportedOperationException if the entries of PAPHT are wider than 63 bits
+     */
+    @Override
+    public void write(long index, int value) {
+        Bit[] block = Bit.toBits(value, nColumnsPerBlock);
+        putIfAbsent(getEntry(index), block);
+        put(getEntry(index), block);
+    }
+
+    @Override
+    public boolean isAllocated(long index) {
+        Bit[] entry = getEntry(index);
+        Cache<Bit[], Bit[]> PHT = PAPHT.get(getCacheSelector(entry));
+        return PHT != null && PHT.get(getBlockSelector(entry)) != null;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong allocatedIndices() {
+        if (nPCSelector + nBlockSelector > 63)
+            throw new UnsupportedOperationException("PAPHT entries can not be addressed by a long index");
+
+        return PAPHT.entrySet().stream().flatMapToLong(entry -> {
+            long from = Snapshots.parseKey(entry.getKey()) * nRowsPerPHT;
+            return ((PageHistoryTable) entry.getValue()).indexStream().map(row -> from + row);
+        }).iterator();
+    }
+
+    @Override
+    public long getSize() {
+        return nPCSelector + nBlockSelector > 62 ? Long.MAX_VALUE : (1L << nPCSelector) * nRowsPerPHT;
+    }
+
+    @Override
+    public int getBlockSize() {
+        return nColumnsPerBlock;
+    }
+
+    /**
+     * Convert the integer index of the PAPHT to the selector and block bits
+     *
+     * @param index selector * rows per PHT + row
+     * @return the address
+     */
+    private Bit[] getEntry(long index) {
+        if (nPCSelector + nBlockSelector > 63)
+            throw new UnsupportedOperationException("PAPHT entries can not be addressed by a long index");
+
+        long selector = index / nRowsPerPHT;
+        long row = index % nRowsPerPHT;
+        return Bit.toBits((selector << nBlockSelector) | row, nPCSelector + nBlockSelector);
+    }
+
     /**
      * Get the cache selector string for PAPHT
      *
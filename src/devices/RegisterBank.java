@@ -15,13 +15,13 @@ package devices;
  */
 
 import utils.Bit;
-import utils.Monitorable;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.TreeMap;
 
-public class RegisterBank implements Monitorable {
+public class RegisterBank implements ShiftRegisterBank {
     private final int registerSize;
     private final int selectorSize;
 
@@ -45,6 +45,7 @@ public class RegisterBank implements Monitorable {
      * @return a shift register associated to that address ( a copy of it )
      * @throws IllegalArgumentException if the selector is not in legal bound.
      */
+    @Override
     public ShiftRegister read(Bit[] selector) {
         // check the arguments
         if (selector.length != selectorSize)
@@ -68,6 +69,7 @@ public class RegisterBank implements Monitorable {
      * @throws IllegalArgumentException if the selector is not in legal bound or the registerValue size is not as same as
      *                                  register size
      */
+    @Override
     public void write(Bit[] selector, Bit[] registerValue) {
         // check the arguments
         if (selector.length != selectorSize)
@@ -85,6 +87,86 @@ public class RegisterBank implements Monitorable {
         }
     }
 
+    /**
+     * insert a bit in the specific register without copying it. If the selector is not associated with any
+     * register then a new register will be initialized first.
+     *
+     * @param selector the value which is used for selecting the register
+     * @param bit      the bit which is inserted in the register
+     * @throws IllegalArgumentException if the selector is not in legal bound.
+     */
+    @Override
+    public void insert(Bit[] selector, Bit bit) {
+        // check the arguments
+        if (selector.length != selectorSize)
+            throw new IllegalArgumentException("register bank selector is not valid");
+
+        RB.computeIfAbsent(Bit.arrayToString(selector), k -> new SIPORegister("r", registerSize, null)).insert(bit);
+    }
+
+    /**
+     * @param selector the integer value of the selector
+     * @return the integer value of the register. the register is initialized if it is not touched yet.
+     */
+    @Override
+    public long getValue(int selector) {
+        return getRegister(selector).getValue();
+    }
+
+    /**
+     * @param selector the integer value of the selector
+     * @param bit      the bit which is inserted in the register
+     */
+    @Override
+    public void insert(int selector, Bit bit) {
+        getRegister(selector).insert(bit);
+    }
+
+    /**
+     * @param selector the integer value of the selector
+     * @param value    the value which is written on the register
+     */
+    @Override
+    public void load(int selector, long value) {
+        getRegister(selector).load(value);
+    }
+
+    /**
+     * @param selector the integer value of the selector
+     * @return true if the register is initialized
+     */
+    @Override
+    public boolean isAllocated(int selector) {
+        return RB.containsKey(Bit.toBinaryString(selector, selectorSize));
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt allocatedSelectors() {
+        return RB.keySet().stream().mapToInt(key -> (int) Snapshots.parseKey(key)).iterator();
+    }
+
+    @Override
+    public int getSelectorSize() {
+        return selectorSize;
+    }
+
+    @Override
+    public int getRegisterSize() {
+        return registerSize;
+    }
+
+    /**
+     * remove all the registers
+     */
+    @Override
+    public void clear() {
+        RB.clear();
+    }
+
+    private ShiftRegister getRegister(int selector) {
+        return RB.computeIfAbsent(Bit.toBinaryString(selector, selectorSize), k -> new SIPORegister("r", registerSize, null));
+    }
+
     @Override
     public String monitor() {
         StringBuilder sb = new StringBuilder();
@@ -54,6 +54,13 @@ public class SIPORegister implements ShiftRegister {
         return Arrays.copyOf(register, size);
     }
 
+    @Override
+    public long getValue() {
+        long value = 0;
+        for (Bit bit : register) value = (value << 1) | (bit == Bit.ONE ? 1 : 0);
+        return value;
+    }
+
     /**
      * load data into register
      *
@@ -64,6 +71,16 @@ public class SIPORegister implements ShiftRegister {
         if (size >= 0) System.arraycopy(bits, 0, register, 0, size);
     }
 
+    /**
+     * load the integer value into register
+     *
+     * @param value data to be load in register
+     */
+    @Override
+    public void load(long value) {
+        for (int i = 0; i < size; i++) register[i] = ((value >>> (size - 1 - i)) & 1) == 1 ? Bit.ONE : Bit.ZERO;
+    }
+
     /**
      * Inserts a new bit at the beginning of the register and shifts all existing bits
      * to the right. The new bit is represented using a Bit enum.
@@ -3,15 +3,61 @@ package devices;
 
 import utils.Bit;
 import utils.Monitorable;
+import utils.Snapshotable;
 
-public interface ShiftRegister extends Monitorable {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface ShiftRegister extends Monitorable, Snapshotable {
     Bit[] read();
 
+    /**
+     * @return the integer value of the register (the leftmost bit is the most significant bit)
+     * without copying the register content
+     */
+    long getValue();
+
     void load(Bit[] bits);
 
+    /**
+     * load the lowest bits of the value into the register (the leftmost bit is the most significant bit)
+     *
+     * @param value data to be load in register
+     */
+    void load(long value);
+
     void insert(Bit bit);
 
     int getLength();
 
     void clear();
+
+    /**
+     * save the length and the value of the register (at most 64 bits)
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state can not be written
+     */
+    @Override
+    default void save(DataOutput out) throws IOException {
+        if (getLength() > 64) throw new UnsupportedOperationException("register is too long for a snapshot");
+
+        out.writeInt(getLength());
+        out.writeLong(getValue());
+    }
+
+    /**
+     * @param in the source of the state
+     * @throws IOException if the state can not be read, the saved register has another length or the value is too wide
+     */
+    @Override
+    default void restore(DataInput in) throws IOException {
+        if (in.readInt() != getLength()) throw new IOException("snapshot register length does not match the register");
+
+        long value = in.readLong();
+        if (!Snapshots.fits(value, getLength()))
+            throw new IOException("snapshot register value is wider than the register");
+        load(value);
+    }
 }
@@ -0,0 +1,128 @@
+package devices;
+
+import utils.Bit;
+import utils.Monitorable;
+import utils.Snapshotable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.PrimitiveIterator;
+
+/*
+simple bank of shift registers interface
+
+each register is selected by a number of bits. read the functions documentation if anything is unclear
+
+ */
+public interface ShiftRegisterBank extends Monitorable, Snapshotable {
+    /**
+     * read the specified register from the register bank. If the selector is not associated with any
+     * register then a new register will be initialized.
+     *
+     * @param selector the value which is used for reading from the memory bank
+     * @return a shift register associated to that address ( a copy of it )
+     */
+    ShiftRegister read(Bit[] selector);
+
+    /**
+     * write the value on a specific register.
+     *
+     * @param selector      the value which is used for reading from the memory bank
+     * @param registerValue the value which is written on specific register.
+     */
+    void write(Bit[] selector, Bit[] registerValue);
+
+    /**
+     * insert a bit in the specific register in place. the result is the same as reading the register,
+     * inserting the bit in the copy and writing it back.
+     *
+     * @param selector the value which is used for selecting the register
+     * @param bit      the bit which is inserted in the register
+     */
+    void insert(Bit[] selector, Bit bit);
+
+    /**
+     * read the integer value of the specified register without copying it. If the selector is not associated
+     * with any register then a new register will be initialized.
+     *
+     * @param selector the integer value of the selector
+     * @return the integer value of the register
+     */
+    long getValue(int selector);
+
+    /**
+     * insert a bit in the specific register in place.
+     *
+     * @param selector the integer value of the selector
+     * @param bit      the bit which is inserted in the register
+     */
+    void insert(int selector, Bit bit);
+
+    /**
+     * load the lowest bits of the value in the specific register. the register is initialized if it is not
+     * touched yet.
+     *
+     * @param selector the integer value of the selector
+     * @param value    the integer value of the register
+     */
+    void load(int selector, long value);
+
+    /**
+     * @param selector the integer value of the selector
+     * @return true if the register is initialized
+     */
+    boolean isAllocated(int selector);
+
+    /**
+     * @return the selectors of the registers which are initialized in ascending order
+     */
+    PrimitiveIterator.OfInt allocatedSelectors();
+
+    /**
+     * @return number of bits which is needed for selecting a register
+     */
+    int getSelectorSize();
+
+    /**
+     * @return number of bits of each register
+     */
+    int getRegisterSize();
+
+    /**
+     * remove all the registers
+     */
+    void clear();
+
+    /**
+     * save the sizes of the bank and the initialized registers
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state can not be written
+     */
+    @Override
+    default void save(DataOutput out) throws IOException {
+        out.writeInt(getSelectorSize());
+        out.writeInt(getRegisterSize());
+        Snapshots.writeEntries(out, allocatedSelectors(), selector -> getValue((int) selector));
+    }
+
+    /**
+     * replace the registers of the bank with the saved registers. the bank is not changed if the registers can not
+     * be read.
+     *
+     * @param in the source of the state
+     * @throws IOException if the state can not be read, the saved bank has other sizes or a register is too wide
+     */
+    @Override
+    default void restore(DataInput in) throws IOException {
+        int selectorSize = in.readInt();
+        int registerSize = in.readInt();
+        if (selectorSize != getSelectorSize() || registerSize != getRegisterSize())
+            throw new IOException("snapshot register bank size does not match the register bank");
+        if (selectorSize > 31) throw new UnsupportedOperationException("register bank is too large for a snapshot");
+
+        Snapshots.readEntries(in, 1L << selectorSize, registerSize, this::clear,
+                (selector, value) -> load((int) selector, value));
+    }
+}
@@ -0,0 +1,142 @@
+package devices;
+
+/*
+ * our snapshot encoding of the devices
+ * ------------------------------------------------------
+ * the sparse devices (tables and register banks) save only the associated entries. the indices are
+ * in ascending order and each index is saved as a varint gap from the previous index (the first gap is
+ * index + 1), followed by the varint value of the entry. a zero gap marks the end of the entries.
+ * a value must fit in the width of the device (the register size or the block size). the entries are read
+ * and checked before the device is cleared, so a truncated or corrupted snapshot leaves the device unchanged.
+ * -------------------------------------------------------
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+final class Snapshots {
+    private Snapshots() {
+        // make the constructor private to avoid instantiating.
+    }
+
+    /**
+     * write the entries of a sparse device
+     *
+     * @param indices the associated indices in ascending order
+     * @param values  the value of each index
+     */
+    static void writeEntries(DataOutput out, PrimitiveIterator.OfLong indices, IndexValue values) throws IOException {
+        long previous = -1;
+        while (indices.hasNext()) {
+            long index = indices.nextLong();
+            writeVarLong(out, index - previous);
+            writeVarLong(out, values.get(index));
+            previous = index;
+        }
+        writeVarLong(out, 0);
+    }
+
+    /**
+     * write the entries of a sparse device which is addressed by int indices
+     *
+     * @param indices the associated indices in ascending order
+     * @param values  the value of each index
+     */
+    static void writeEntries(DataOutput out, PrimitiveIterator.OfInt indices, IndexValue values) throws IOException {
+        writeEntries(out, new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return indices.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return indices.nextInt();
+            }
+        }, values);
+    }
+
+    /**
+     * read the entries of a sparse device. all the entries are read into a scratch buffer first and the device
+     * is cleared only when the whole list is valid.
+     *
+     * @param size   the number of entries of the device
+     * @param width  the number of bits of each value
+     * @param clear  removes all the entries of the device
+     * @param target receives each index and value
+     * @throws IOException if the entries can not be read or an index or a value is out of the device bound
+     */
+    static void readEntries(DataInput in, long size, int width, Runnable clear, IndexValueConsumer target)
+            throws IOException {
+        long[] indices = new long[16];
+        long[] values = new long[16];
+        int count = 0;
+
+        long index = -1;
+        long gap;
+        while ((gap = readVarLong(in)) != 0) {
+            index += gap;
+            if (gap < 0 || index >= size) throw new IOException("snapshot entry is out of the device bound");
+            long value = readVarLong(in);
+            if (!fits(value, width)) throw new IOException("snapshot entry value is wider than the device");
+
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            indices[count] = index;
+            values[count] = value;
+            count++;
+        }
+
+        clear.run();
+        for (int i = 0; i < count; i++) target.accept(indices[i], values[i]);
+    }
+
+    /**
+     * @param value the value of an entry
+     * @param width the number of bits of the entry
+     * @return true if the value is smaller than 2^width
+     */
+    static boolean fits(long value, int width) {
+        return width >= 64 || (value >>> width) == 0;
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("corrupted varint in snapshot");
+    }
+
+    /**
+     * parse the binary string key of a mapped device
+     */
+    static long parseKey(String key) {
+        return key.isEmpty() ? 0 : Long.parseLong(key, 2);
+    }
+
+    @FunctionalInterface
+    interface IndexValue {
+        long get(long index);
+    }
+
+    @FunctionalInterface
+    interface IndexValueConsumer {
+        void accept(long index, long value);
+    }
+}
@@ -19,4 +19,102 @@ public interface BranchPredictor extends Monitorable {
      * @param actual      the actual result of branch (taken or not)
      */
     void update(BranchInstruction instruction, BranchResult actual);
+
+    /**
+     * Predict if the branch is taken or not. The default implementation converts the instruction
+     * to the bit array form.
+     *
+     * @param instruction the branch instruction
+     * @return predicted result of branch
+     */
+    default BranchResult predict(CompactBranchInstruction instruction) {
+        return predict(instruction.toBranchInstruction());
+    }
+
+    /**
+     * The dynamic predictor will update its state based on the branch condition result. The default
+     * implementation converts the instruction to the bit array form.
+     *
+     * @param instruction the branch instruction
+     * @param actual      the actual result of branch (taken or not)
+     */
+    default void update(CompactBranchInstruction instruction, BranchResult actual) {
+        update(instruction.toBranchInstruction(), actual);
+    }
+
+    /**
+     * Predict if the branch is taken or not and save the state which the update needs in the prediction handle.
+     * The predictors which implement this method do not use their SC register, so several branches may be
+     * predicted before they are updated. The default implementation calls predict with the instruction and it
+     * saves only the address and the result, so it is not reentrant.
+     *
+     * @param instruction the branch instruction
+     * @param prediction  the handle which receives the state of the prediction
+     * @return predicted result of branch
+     */
+    default BranchResult predict(CompactBranchInstruction instruction, Prediction prediction) {
+        BranchResult result = predict(instruction);
+        prediction.set(instruction.getInstructionAddress(), instruction.getInstructionAddressSize(), -1, 0,
+                result == BranchResult.TAKEN ? 1 : 0, 1);
+        return result;
+    }
+
+    /**
+     * The dynamic predictor will update the counter and the history of a prediction handle. The default
+     * implementation calls update with the address and the address size which are saved in the handle.
+     *
+     * @param prediction the handle which is filled by predict
+     * @param actual     the actual result of branch (taken or not)
+     */
+    default void update(Prediction prediction, BranchResult actual) {
+        update(new CompactBranchInstruction(0, prediction.getInstructionAddress(), 0, 0,
+                prediction.getInstructionAddressSize(), 0), actual);
+    }
+
+    /**
+     * Predict and update a block of branches and count the correct predictions. The addresses have the same
+     * number of bits, so they select the same as the compact instructions with this address size. The default
+     * implementation calls predict and update with a compact instruction for each branch.
+     *
+     * @param instructionAddresses   the integer values of the branch addresses
+     * @param instructionAddressSize the number of bits of each branch address (at most 64)
+     * @param outcomes               the actual results of the branches (true if taken)
+     * @param offset                 the index of the first branch in the arrays
+     * @param length                 the number of branches
+     * @param predictions            the array which receives the predictions at the same indices (may be null)
+     * @return the number of correct predictions
+     */
+    default int predictAndUpdate(long[] instructionAddresses, int instructionAddressSize, boolean[] outcomes,
+                                 int offset, int length, boolean[] predictions) {
+        CompactBranchInstruction instruction = new CompactBranchInstruction(0, instructionAddressSize, 0);
+        int hits = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            instruction.set(0, instructionAddresses[i], 0);
+            BranchResult actual = outcomes[i] ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
+
+            BranchResult prediction = predict(instruction);
+            if (predictions != null) predictions[i] = prediction == BranchResult.TAKEN;
+            if (prediction == actual) hits++;
+            update(instruction, actual);
+        }
+        return hits;
+    }
+
+    /**
+     * Enable or disable the statistics of the predictor. Enabling the statistics starts new counters.
+     * The statistics are disabled by default, so they cost nothing unless they are needed.
+     *
+     * @param enabled true to record the statistics of the next predictions and updates
+     * @throws UnsupportedOperationException if the predictor does not record any statistics
+     */
+    default void setStatisticsEnabled(boolean enabled) {
+        throw new UnsupportedOperationException("statistics are not supported by this predictor");
+    }
+
+    /**
+     * @return the statistics of the predictor or null if the statistics are disabled
+     */
+    default PredictorStatistics getStatistics() {
+        return null;
+    }
 }
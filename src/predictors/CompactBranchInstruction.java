@@ -0,0 +1,122 @@
+package predictors;
+
+
+import utils.Bit;
+
+/**
+ * A branch instruction which keeps the opcode, instruction address and jump address as primitive values.
+ * The sizes of the fields are kept to convert the instruction from and to the bit array form.
+ * The instruction is mutable, so one object can be reused for a stream of branches.
+ */
+public class CompactBranchInstruction {
+    private final int opcodeSize;
+
+    private final int instructionAddressSize;
+
+    private final int jumpAddressSize;
+
+    private int opcode;
+
+    private long instructionAddress;
+
+    private long jumpAddress;
+
+    /**
+     * @param opcodeSize             the number of bits of the opcode (at most 32)
+     * @param instructionAddressSize the number of bits of the instruction address (at most 64)
+     * @param jumpAddressSize        the number of bits of the jump address (at most 64)
+     * @throws IllegalArgumentException if any size is not in legal bound
+     */
+    public CompactBranchInstruction(int opcodeSize, int instructionAddressSize, int jumpAddressSize) {
+        if (opcodeSize < 0 || opcodeSize > 32)
+            throw new IllegalArgumentException("opcode size must be between 0 and 32 bits");
+        if (instructionAddressSize < 0 || instructionAddressSize > 64 || jumpAddressSize < 0 || jumpAddressSize > 64)
+            throw new IllegalArgumentException("address size must be between 0 and 64 bits");
+
+        this.opcodeSize = opcodeSize;
+        this.instructionAddressSize = instructionAddressSize;
+        this.jumpAddressSize = jumpAddressSize;
+    }
+
+    public CompactBranchInstruction(int opcode, long instructionAddress, long jumpAddress,
+                                    int opcodeSize, int instructionAddressSize, int jumpAddressSize) {
+        this(opcodeSize, instructionAddressSize, jumpAddressSize);
+        set(opcode, instructionAddress, jumpAddress);
+    }
+
+    /**
+     * Creates a compact instruction with the same bits as the given instruction.
+     *
+     * @param instruction the branch instruction
+     * @return the compact form of the instruction
+     */
+    public static CompactBranchInstruction of(BranchInstruction instruction) {
+        return new CompactBranchInstruction(
+                (int) Bit.toLong(instruction.getOpcode()),
+                Bit.toLong(instruction.getInstructionAddress()),
+                Bit.toLong(instruction.getJumpAddress()),
+                instruction.getOpcode().length,
+                instruction.getInstructionAddress().length,
+                instruction.getJumpAddress().length
+        );
+    }
+
+    /**
+     * @return the branch instruction with the bit array fields
+     */
+    public BranchInstruction toBranchInstruction() {
+        return new BranchInstruction(
+                Bit.toBits(opcode, opcodeSize),
+                Bit.toBits(instructionAddress, instructionAddressSize),
+                Bit.toBits(jumpAddress, jumpAddressSize)
+        );
+    }
+
+    /**
+     * overwrite the fields of the instruction. the values are not masked to the field sizes.
+     *
+     * @param opcode             the opcode
+     * @param instructionAddress the address of the branch instruction
+     * @param jumpAddress        the target address of the branch
+     * @return this instruction
+     */
+    public CompactBranchInstruction set(int opcode, long instructionAddress, long jumpAddress) {
+        this.opcode = opcode;
+        this.instructionAddress = instructionAddress;
+        this.jumpAddress = jumpAddress;
+        return this;
+    }
+
+    public int getOpcode() {
+        return opcode;
+    }
+
+    public long getInstructionAddress() {
+        return instructionAddress;
+    }
+
+    public long getJumpAddress() {
+        return jumpAddress;
+    }
+
+    public int getOpcodeSize() {
+        return opcodeSize;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    public int getJumpAddressSize() {
+        return jumpAddressSize;
+    }
+
+    @Override
+    public String toString() {
+        return "BranchInstruction{" +
+                "opcode=" + Bit.toBinaryString(opcode, opcodeSize) +
+                ", sourceAddress=" + Bit.toBinaryString(instructionAddress, instructionAddressSize) +
+                ", targetAddress=" + Bit.toBinaryString(jumpAddress, jumpAddressSize) +
+                '}';
+    }
+}
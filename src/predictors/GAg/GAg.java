@@ -1,19 +1,12 @@
 package predictors.GAg;
 
-import devices.*;
-import predictors.BranchInstruction;
-import predictors.BranchPredictor;
-import utils.Bit;
-import utils.BranchResult;
+import predictors.PredictorType;
+import predictors.SpeculativePredictor;
+import predictors.TwoLevelPredictor;
 import utils.CountMode;
+import utils.StorageMode;
 
-import java.util.Arrays;
-
-public class GAg implements BranchPredictor {
-    private final ShiftRegister BHR; // branch history register
-    private final Cache<Bit[], Bit[]> PHT; // page history table
-    private final ShiftRegister SC; // saturated counter register
-
+public class GAg extends TwoLevelPredictor implements SpeculativePredictor {
     /**
      * Creates a new GAg predictor with the given BHR register size and initializes the BHR and PHT.
      *
@@ -21,70 +14,29 @@ public class GAg implements BranchPredictor {
      * @param SCSize  the size of the register which hold the saturating counter value and the cache block size
      */
     public GAg(int BHRSize, int SCSize) {
-        // Initialize the BHR register with the given size and no default value
-        this.BHR = new SIPORegister("bhr", BHRSize, null);
-
-        // Initialize the PHT with a size of 2^size and each entry having a saturating counter of size "SCSize"
-        PHT = new PageHistoryTable((int) Math.pow(2, BHRSize), SCSize);
-
-        // Initialize the SC register
-        SC = new SIPORegister("sc", SCSize, null);
+        this(BHRSize, SCSize, StorageMode.MAPPED);
     }
 
     /**
-     * Predicts the result of a branch instruction based on the global branch history
+     * Creates a new GAg predictor with the given BHR register size and storage model of the BHR and PHT.
      *
-     * @param branchInstruction the branch instruction
-     * @return the predicted outcome of the branch instruction (taken or not taken)
+     * @param BHRSize     the size of the BHR register
+     * @param SCSize      the size of the register which hold the saturating counter value and the cache block size
+     * @param storageMode the storage model which is used for the BHR and PHT
      */
-    @Override
-    public BranchResult predict(BranchInstruction branchInstruction) {
-        // Read the current value of the BHR register
-        Bit[] BHRValue = BHR.read();
-
-        // Get the associated block with the current value of the BHR register from the PHT
-        Bit[] cacheBlock = PHT.setDefault(BHRValue, getDefaultBlock());
-
-        // load the block into the register
-        SC.load(cacheBlock);
-
-        // Return the predicted outcome of the branch instruction based on the value of the MSB
-        return cacheBlock[0].getValue() ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
+    public GAg(int BHRSize, int SCSize, StorageMode storageMode) {
+        this(BHRSize, SCSize, storageMode, CountMode.SATURATING);
     }
 
     /**
-     * Updates the values in the cache based on the actual branch result
+     * Creates a new GAg predictor with the given BHR register size, counter mode and storage model of the BHR and PHT.
      *
-     * @param instruction the branch instruction
-     * @param actual      the actual result of the branch condition
+     * @param BHRSize     the size of the BHR register
+     * @param SCSize      the size of the register which hold the saturating counter value and the cache block size
+     * @param storageMode the storage model which is used for the BHR and PHT
+     * @param countMode   the counter mode which is used for updating the saturating counters
      */
-    @Override
-    public void update(BranchInstruction instruction, BranchResult actual) {
-        // check the predication result
-        boolean isTaken = actual == BranchResult.TAKEN;
-
-        // update saturating counter
-        Bit[] nValue = CombinationalLogic.count(SC.read(), isTaken, CountMode.SATURATING);
-
-        // add updated value to the cache
-        PHT.put(BHR.read(), nValue);
-
-        // update global history
-        BHR.insert(isTaken ? Bit.ONE : Bit.ZERO);
-    }
-
-
-    /**
-     * @return a zero series of bits as default value of cache block
-     */
-    private Bit[] getDefaultBlock() {
-        Bit[] defaultBlock = new Bit[SC.getLength()];
-        Arrays.fill(defaultBlock, Bit.ZERO);
-        return defaultBlock;
-    }
-
-    @Override
-    public String monitor() {
-        return "GAg predictor snapshot: \n" + BHR.monitor() + SC.monitor() + PHT.monitor();
+    public GAg(int BHRSize, int SCSize, StorageMode storageMode, CountMode countMode) {
+        super(PredictorType.GAg, BHRSize, SCSize, 0, 0, storageMode, countMode);
     }
 }
@@ -1,24 +1,12 @@
 package predictors.GAs;
 
-
-import devices.*;
-import predictors.BranchInstruction;
-import predictors.BranchPredictor;
-import utils.Bit;
-import utils.BranchResult;
+import predictors.PredictorType;
+import predictors.SpeculativePredictor;
+import predictors.TwoLevelPredictor;
 import utils.CountMode;
+import utils.StorageMode;
 
-import java.util.Arrays;
-
-public class GAs implements BranchPredictor {
-
-    private final int branchInstructionSize;
-    private final int KSize;
-    private final ShiftRegister SC; // saturating counter register
-    private final ShiftRegister BHR; // branch history register
-    private final Cache<Bit[], Bit[]> PSPHT; // Per Set Predication History Table
-
-
+public class GAs extends TwoLevelPredictor implements SpeculativePredictor {
     /**
      * Creates a new GAs predictor with the given BHR register size and initializes the PAPHT based on
      * the Ksize and saturating counter size
@@ -28,121 +16,33 @@ public class GAs implements BranchPredictor {
      * @param branchInstructionSize the number of bits which is used for saving a branch instruction
      */
     public GAs(int BHRSize, int SCSize, int branchInstructionSize, int KSize) {
-        this.branchInstructionSize = branchInstructionSize;
-        this.KSize = KSize;
-
-        // Initialize the BHR register with the given size and no default value
-        BHR = new SIPORegister("bhr", BHRSize, null);
-
-        // Initializing the PAPHT with K bit as PHT selector and 2^BHRSize row as each PHT entries
-        // number and SCSize as block size
-        PSPHT = new PerAddressPageHistoryTable(KSize, (int) Math.pow(2, BHRSize), SCSize);
-
-        // Initialize the saturating counter
-        SC = new SIPORegister("sc", SCSize, null);
-    }
-
-    /**
-     * predicts the result of a branch instruction based on the global branch history and hash value of
-     * branch instruction address
-     *
-     * @param branchInstruction the branch instruction
-     * @return the predicted outcome of the branch instruction (taken or not taken)
-     */
-    @Override
-    public BranchResult predict(BranchInstruction branchInstruction) {
-        // get branch address
-        Bit[] branchAddress = branchInstruction.getInstructionAddress();
-
-        // get PAPHT entry by concatenating the Branch address and BHR
-        Bit[] cacheEntry = getCacheEntry(branchAddress);
-
-        // Get the associated block with the cacheEntry from the PSPHT
-        Bit[] cacheBlock = PSPHT.setDefault(cacheEntry, getDefaultBlock());
-
-        // load the block into the counter
-        SC.load(cacheBlock);
-
-        // Return the predicted outcome of the branch instruction based on the value of the MSB
-        return cacheBlock[0].getValue() ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
-    }
-
-    /**
-     * Updates the value in the cache based on actual branch result
-     *
-     * @param branchInstruction the branch instruction
-     * @param actual            the actual result of branch (Taken or Not)
-     */
-    @Override
-    public void update(BranchInstruction branchInstruction, BranchResult actual) {
-        // get branch address
-        Bit[] branchAddress = branchInstruction.getInstructionAddress();
-
-        // check the predication result
-        boolean isTaken = actual == BranchResult.TAKEN;
-
-        // update saturating counter
-        Bit[] nValue = CombinationalLogic.count(SC.read(), isTaken, CountMode.SATURATING);
-        // update the PSPHT
-        PSPHT.put(getCacheEntry(branchAddress), nValue);
-
-        // update global history
-        BHR.insert(isTaken ? Bit.ONE : Bit.ZERO);
+        this(BHRSize, SCSize, branchInstructionSize, KSize, StorageMode.MAPPED);
     }
 
     /**
-     * @return snapshot of caches and registers content
-     */
-    public String monitor() {
-        return "GAp predictor snapshot: \n" + BHR.monitor() + SC.monitor() + PSPHT.monitor();
-    }
-
-
-    /**
-     * concat the PC and BHR to retrieve the desired address
+     * Creates a new GAs predictor with the given BHR register size and storage model of the BHR and PHTs.
      *
-     * @param branchAddress program counter
-     * @return concatenated value of first M bits of branch address and BHR
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param KSize                 the number of bits which is used for selecting a set
+     * @param storageMode           the storage model which is used for the BHR and PHTs
      */
-    private Bit[] getCacheEntry(Bit[] branchAddress) {
-        // hash the branch address
-        Bit[] hashKSize = hash(branchAddress);
-
-        // Concatenate the Hash bits with the BHR bits
-        Bit[] bhrBits = BHR.read();
-        Bit[] cacheEntry = new Bit[hashKSize.length + bhrBits.length];
-        System.arraycopy(hashKSize, 0, cacheEntry, 0, hashKSize.length);
-        System.arraycopy(bhrBits, 0, cacheEntry, hashKSize.length, bhrBits.length);
-
-        return cacheEntry;
+    public GAs(int BHRSize, int SCSize, int branchInstructionSize, int KSize, StorageMode storageMode) {
+        this(BHRSize, SCSize, branchInstructionSize, KSize, storageMode, CountMode.SATURATING);
     }
 
     /**
-     * hash N bits to a K bit value
+     * Creates a new GAs predictor with the given BHR register size, counter mode and storage model of the BHR and PHTs.
      *
-     * @param bits program counter
-     * @return hash value of fist M bits of `bits` in K bits
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param KSize                 the number of bits which is used for selecting a set
+     * @param storageMode           the storage model which is used for the BHR and PHTs
+     * @param countMode             the counter mode which is used for updating the saturating counters
      */
-    private Bit[] hash(Bit[] bits) {
-        Bit[] hash = new Bit[KSize];
-
-        // XOR the first M bits of the PC to produce the hash
-        for (int i = 0; i < branchInstructionSize; i++) {
-            int j = i % KSize;
-            if (hash[j] == null) {
-                hash[j] = bits[i];
-            } else {
-                Bit xorProduce = hash[j].getValue() ^ bits[i].getValue() ? Bit.ONE : Bit.ZERO;
-                hash[j] = xorProduce;
-
-            }
-        }
-        return hash;
-    }
-
-    private Bit[] getDefaultBlock() {
-        Bit[] defaultBlock = new Bit[SC.getLength()];
-        Arrays.fill(defaultBlock, Bit.ZERO);
-        return defaultBlock;
+    public GAs(int BHRSize, int SCSize, int branchInstructionSize, int KSize, StorageMode storageMode, CountMode countMode) {
+        super(PredictorType.GAs, BHRSize, SCSize, branchInstructionSize, KSize, storageMode, countMode);
     }
 }
@@ -1,19 +1,11 @@
 package predictors.PAg;
 
-import devices.*;
-import predictors.BranchInstruction;
-import predictors.BranchPredictor;
-import utils.Bit;
-import utils.BranchResult;
+import predictors.PredictorType;
+import predictors.TwoLevelPredictor;
 import utils.CountMode;
+import utils.StorageMode;
 
-import java.util.Arrays;
-
-public class PAg implements BranchPredictor {
-    private final ShiftRegister SC; // saturating counter register
-    private final RegisterBank PABHR; // per address branch history register
-    private final Cache<Bit[], Bit[]> PHT; // page history table
-
+public class PAg extends TwoLevelPredictor {
     /**
      * Creates a new PAg predictor with the given BHR register size and initializes the PABHR based on
      * the branch instruction size and BHR size
@@ -23,72 +15,31 @@ public class PAg implements BranchPredictor {
      * @param branchInstructionSize the number of bits which is used for saving a branch instruction
      */
     public PAg(int BHRSize, int SCSize, int branchInstructionSize) {
-        // Initialize the PABHR with the given bhr and branch instruction size
-        PABHR = new RegisterBank(branchInstructionSize, BHRSize);
-
-        // Initialize the PHT with a size of 2^size and each entry having a saturating counter of size "SCSize"
-        PHT = new PageHistoryTable((int) Math.pow(2, BHRSize), SCSize);
-
-        // Initialize the SC register
-        SC = new SIPORegister("sc", SCSize, null);
+        this(BHRSize, SCSize, branchInstructionSize, StorageMode.MAPPED);
     }
 
     /**
-     * @param instruction the branch instruction
-     * @return the predicted outcome of the branch instruction (taken or not taken)
-     */
-    @Override
-    public BranchResult predict(BranchInstruction instruction) {
-        // select the BHR based on branch instruction address
-        ShiftRegister correspondingBHR = PABHR.read(instruction.getInstructionAddress());
-
-        // Get the associated block with the current value of the BHR register from the PHT
-        Bit[] cacheBlock = PHT.setDefault(correspondingBHR.read(), getDefaultBlock());
-
-        // load the block into the register
-        SC.load(cacheBlock);
-
-        // return the predicated outcome of the branch instruction based on the value of the MSB
-        return cacheBlock[0].getValue() ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
-    }
-
-    /**
-     * @param instruction the branch instruction
-     * @param actual      the actual result of branch (taken or not)
+     * Creates a new PAg predictor with the given BHR register size and storage model of the BHRs and PHT.
+     *
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param storageMode           the storage model which is used for the BHRs and PHT
      */
-    @Override
-    public void update(BranchInstruction instruction, BranchResult actual) {
-        // check the predication result
-        boolean isTaken = actual == BranchResult.TAKEN;
-
-        // update saturating counter
-        Bit[] nValue = CombinationalLogic.count(SC.read(), isTaken, CountMode.SATURATING);
-
-        // get register number
-        Bit[] RBSelector = instruction.getInstructionAddress();
-
-        // get register from register bank
-        ShiftRegister correspondingBHR = PABHR.read(RBSelector);
-
-        // add updated value to the cache
-        PHT.put(correspondingBHR.read(), nValue);
-
-        // update branch history
-        correspondingBHR.insert(isTaken ? Bit.ONE : Bit.ZERO);
-        PABHR.write(RBSelector, correspondingBHR.read());
+    public PAg(int BHRSize, int SCSize, int branchInstructionSize, StorageMode storageMode) {
+        this(BHRSize, SCSize, branchInstructionSize, storageMode, CountMode.SATURATING);
     }
 
     /**
-     * @return a zero series of bits as default value of cache block
+     * Creates a new PAg predictor with the given BHR register size, counter mode and storage model of the BHRs and PHT.
+     *
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param storageMode           the storage model which is used for the BHRs and PHT
+     * @param countMode             the counter mode which is used for updating the saturating counters
      */
-    private Bit[] getDefaultBlock() {
-        Bit[] defaultBlock = new Bit[SC.getLength()];
-        Arrays.fill(defaultBlock, Bit.ZERO);
-        return defaultBlock;
-    }
-
-    @Override
-    public String monitor() {
-        return "PAg predictor snapshot: \n" + PABHR.monitor() + SC.monitor() + PHT.monitor();
+    public PAg(int BHRSize, int SCSize, int branchInstructionSize, StorageMode storageMode, CountMode countMode) {
+        super(PredictorType.PAg, BHRSize, SCSize, branchInstructionSize, 0, storageMode, countMode);
     }
 }
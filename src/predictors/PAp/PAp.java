@@ -1,101 +1,37 @@
 package predictors.PAp;
 
-import devices.*;
-import predictors.BranchInstruction;
-import predictors.BranchPredictor;
-import utils.Bit;
-import utils.BranchResult;
+import predictors.PredictorType;
+import predictors.TwoLevelPredictor;
 import utils.CountMode;
+import utils.StorageMode;
 
-import java.util.Arrays;
-
-public class PAp implements BranchPredictor {
-
-    private final int branchInstructionSize;
-
-    private final ShiftRegister SC; // saturating counter register
-
-    private final RegisterBank PABHR; // per address branch history register
-
-    private final Cache<Bit[], Bit[]> PAPHT; // Per Address Predication History Table
-
+public class PAp extends TwoLevelPredictor {
     public PAp(int BHRSize, int SCSize, int branchInstructionSize) {
-        this.branchInstructionSize = branchInstructionSize;
-
-        // Initialize the PABHR with the given bhr and branch instruction size
-        PABHR = new RegisterBank(branchInstructionSize, BHRSize);
-
-        // Initializing the PAPHT with BranchInstructionSize as PHT Selector and 2^BHRSize row as each PHT entries
-        // number and SCSize as block size
-        PAPHT = new PerAddressPageHistoryTable(branchInstructionSize, (int) Math.pow(2, BHRSize), SCSize);
-
-        // Initialize the SC register
-        SC = new SIPORegister("sc", SCSize, null);
-    }
-
-    @Override
-    public BranchResult predict(BranchInstruction branchInstruction) {
-        // instruction address
-        Bit[] instructionAddress = branchInstruction.getInstructionAddress();
-
-        // select the BHR based on branch instruction address
-        ShiftRegister correspondingBHR = PABHR.read(instructionAddress);
-
-        // get PAPHT entry by concatenating the branch address and BHR
-        Bit[] cacheEntry = getCacheEntry(instructionAddress, correspondingBHR.read());
-
-        // Get the associated block with the cacheEntry from the PAPHT
-        Bit[] cacheBlock = PAPHT.setDefault(cacheEntry, getDefaultBlock());
-
-        // load the block into the register
-        SC.load(cacheBlock);
-
-        // Return the predicted outcome of the branch instruction based on the value of the MSB
-        return cacheBlock[0].getValue() ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
-    }
-
-    @Override
-    public void update(BranchInstruction instruction, BranchResult actual) {
-        // check the predication result
-        boolean isTaken = actual == BranchResult.TAKEN;
-
-        // update saturating counter
-        Bit[] nValue = CombinationalLogic.count(SC.read(), isTaken, CountMode.SATURATING);
-
-        // get register number
-        Bit[] instructionAddress = instruction.getInstructionAddress();
-
-        // get register from register bank
-        ShiftRegister correspondingBHR = PABHR.read(instructionAddress);
-
-        // update the PAPHT
-        PAPHT.put(getCacheEntry(instructionAddress, correspondingBHR.read()), nValue);
-
-        // update branch history
-        correspondingBHR.insert(isTaken ? Bit.ONE : Bit.ZERO);
-        PABHR.write(instructionAddress, correspondingBHR.read());
-    }
-
-
-    private Bit[] getCacheEntry(Bit[] branchAddress, Bit[] BHRValue) {
-        // Concatenate the branch address bits with the BHR bits
-        Bit[] cacheEntry = new Bit[branchAddress.length + BHRValue.length];
-        System.arraycopy(branchAddress, 0, cacheEntry, 0, branchInstructionSize);
-        System.arraycopy(BHRValue, 0, cacheEntry, branchAddress.length, BHRValue.length);
-        return cacheEntry;
+        this(BHRSize, SCSize, branchInstructionSize, StorageMode.MAPPED);
     }
 
     /**
-     * @return a zero series of bits as default value of cache block
+     * Creates a new PAp predictor with the given BHR register size and storage model of the BHRs and PHTs.
+     *
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param storageMode           the storage model which is used for the BHRs and PHTs
      */
-    private Bit[] getDefaultBlock() {
-        Bit[] defaultBlock = new Bit[SC.getLength()];
-        Arrays.fill(defaultBlock, Bit.ZERO);
-        return defaultBlock;
+    public PAp(int BHRSize, int SCSize, int branchInstructionSize, StorageMode storageMode) {
+        this(BHRSize, SCSize, branchInstructionSize, storageMode, CountMode.SATURATING);
     }
 
-    @Override
-    public String monitor() {
-        return "PAp predictor snapshot: \n" + PABHR.monitor() + SC.monitor() + PAPHT.monitor();
+    /**
+     * Creates a new PAp predictor with the given BHR register size, counter mode and storage model of the BHRs and PHTs.
+     *
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param storageMode           the storage model which is used for the BHRs and PHTs
+     * @param countMode             the counter mode which is used for updating the saturating counters
+     */
+    public PAp(int BHRSize, int SCSize, int branchInstructionSize, StorageMode storageMode, CountMode countMode) {
+        super(PredictorType.PAp, BHRSize, SCSize, branchInstructionSize, 0, storageMode, countMode);
     }
 }
@@ -0,0 +1,99 @@
+package predictors;
+
+import utils.BranchResult;
+
+/**
+ * The state of a branch between its prediction and its update. The predictor saves the looked up table entry,
+ * the selector of the history register and the counter value in the handle instead of its SC register, so the
+ * update does not look up the entry again and several branches can be in flight at the same time.
+ * The handle is mutable, so one object can be reused for a stream of branches.
+ */
+public class Prediction {
+    private long instructionAddress;
+
+    private int instructionAddressSize;
+
+    private long entry;
+
+    private int historySelector;
+
+    private int counter;
+
+    private int counterSize;
+
+    private long history;
+
+    /**
+     * Fill the handle. This is called by the predictor.
+     *
+     * @param instructionAddress     the integer value of the branch address
+     * @param instructionAddressSize the number of bits of the branch address
+     * @param entry                  the index of the counter in the pattern history table
+     * @param historySelector        the index of the branch history register (zero for a global register)
+     * @param counter                the value of the counter
+     * @param counterSize            the number of bits of the counter
+     */
+    public void set(long instructionAddress, int instructionAddressSize, long entry, int historySelector, int counter,
+                    int counterSize) {
+        this.instructionAddress = instructionAddress;
+        this.instructionAddressSize = instructionAddressSize;
+        this.entry = entry;
+        this.historySelector = historySelector;
+        this.counter = counter;
+        this.counterSize = counterSize;
+    }
+
+    public long getInstructionAddress() {
+        return instructionAddress;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    public long getEntry() {
+        return entry;
+    }
+
+    public int getHistorySelector() {
+        return historySelector;
+    }
+
+    public int getCounter() {
+        return counter;
+    }
+
+    public int getCounterSize() {
+        return counterSize;
+    }
+
+    /**
+     * @return the global history before the branch was speculated (saved for the repair)
+     */
+    public long getHistory() {
+        return history;
+    }
+
+    /**
+     * Save the global history before the branch is speculated. This is called by the predictor.
+     *
+     * @param history the value of the history register
+     */
+    public void setHistory(long history) {
+        this.history = history;
+    }
+
+    /**
+     * @return true if the branch is predicted taken (the MSB of the counter is one)
+     */
+    public boolean isTaken() {
+        return (counter >>> (counterSize - 1)) != 0;
+    }
+
+    /**
+     * @return predicted result of branch
+     */
+    public BranchResult getResult() {
+        return isTaken() ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
+    }
+}
@@ -0,0 +1,280 @@
+package predictors;
+
+import predictors.GAg.GAg;
+import predictors.GAp.GAp;
+import predictors.GAs.GAs;
+import predictors.PAg.PAg;
+import predictors.PAp.PAp;
+import predictors.PAs.PAs;
+import predictors.SAg.SAg;
+import predictors.SAp.SAp;
+import predictors.SAs.SAs;
+import utils.CountMode;
+import utils.StorageMode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * the parameters of a predictor. the sizes which are not used by the predictor type are saved as zero, so two
+ * configurations of the same predictor are equal.
+ */
+public final class PredictorConfig {
+    // the estimated heap usage of a block in the mapped storage model (map entry, key string and bit arrays)
+    private static final int MAPPED_ENTRY_BYTES = 160;
+
+    private static byte[] specializedTemplate; // the class file of SpecializedPredictor which is loaded once
+    // the number of hidden classes which are kept for reuse (a sweep may specialize many more configurations)
+    private static final int SPECIALIZED_CACHE_SIZE = 64;
+    // the constructors of the hidden classes of the recently used configurations in access order (the key is always
+    // the dense configuration). the least recently used class is evicted and it is unloaded when its predictors are
+    // unreachable, because the hidden classes are not defined as strong.
+    private static final Map<PredictorConfig, MethodHandle> SPECIALIZED_CONSTRUCTORS =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PredictorConfig, MethodHandle> eldest) {
+                    return size() > SPECIALIZED_CACHE_SIZE;
+                }
+            };
+
+    private final PredictorType type;
+    private final int BHRSize;
+    private final int SCSize;
+    private final int branchInstructionSize;
+    private final int KSize;
+    private final StorageMode storageMode;
+    private final CountMode countMode;
+
+    /**
+     * @param type                  the predictor scheme
+     * @param BHRSize               the size of the BHR registers
+     * @param SCSize                the size of the saturating counters
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param KSize                 the number of bits which is used for selecting a set
+     * @param storageMode           the storage model of the tables and registers
+     * @param countMode             the counter mode of the saturating counters
+     */
+    public PredictorConfig(PredictorType type, int BHRSize, int SCSize, int branchInstructionSize, int KSize,
+                           StorageMode storageMode, CountMode countMode) {
+        this.type = type;
+        this.BHRSize = BHRSize;
+        this.SCSize = SCSize;
+        this.branchInstructionSize = type.usesBranchInstructionSize() ? branchInstructionSize : 0;
+        this.KSize = type.usesKSize() ? KSize : 0;
+        this.storageMode = storageMode;
+        this.countMode = countMode;
+    }
+
+    /**
+     * @return true if the predictor can be created with these parameters
+     */
+    public boolean isValid() {
+        if (BHRSize < 1 || BHRSize > 30 || SCSize < 1) return false;
+        if (storageMode == StorageMode.DENSE && SCSize > 8) return false;
+        if (type.usesBranchInstructionSize() && (branchInstructionSize < 1 || branchInstructionSize > 30)) return false;
+        if (type.usesKSize() && (KSize < 1 || KSize > branchInstructionSize)) return false;
+        return getTableCount() * getTableRows() <= Integer.MAX_VALUE - 8;
+    }
+
+    /**
+     * @return a new predictor with these parameters
+     */
+    public BranchPredictor create() {
+        if (!isValid()) throw new IllegalArgumentException("invalid predictor configuration: " + this);
+
+        int M = branchInstructionSize;
+        switch (type) {
+            case GAg:
+                return new GAg(BHRSize, SCSize, storageMode, countMode);
+            case GAp:
+                return new GAp(BHRSize, SCSize, M, storageMode, countMode);
+            case GAs:
+                return new GAs(BHRSize, SCSize, M, KSize, storageMode, countMode);
+            case PAg:
+                return new PAg(BHRSize, SCSize, M, storageMode, countMode);
+            case PAp:
+                return new PAp(BHRSize, SCSize, M, storageMode, countMode);
+            case PAs:
+                return new PAs(BHRSize, SCSize, M, KSize, storageMode, countMode);
+            case SAg:
+                return new SAg(BHRSize, SCSize, M, KSize, storageMode, countMode);
+            case SAp:
+                return new SAp(BHRSize, SCSize, M, KSize, storageMode, countMode);
+            case SAs:
+                return new SAs(BHRSize, SCSize, M, KSize, storageMode, countMode);
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Create a predictor which is specialized for these parameters. The first call of a configuration defines a
+     * hidden class from the SpecializedPredictor template with the configuration as its class data, so the sizes
+     * and the scopes are constants of the class. The classes of the last 64 used configurations are kept and reused
+     * by the next calls of an equal configuration, so their compiled code is shared by all their predictors. An
+     * evicted configuration defines a new class on its next call. The predictions and the statistics are
+     * the same as the predictor which create returns but the storage model is always dense, the snapshots can be
+     * restored only in another specialized predictor and the monitor shows only the configuration.
+     *
+     * @return a new specialized predictor with these parameters
+     * @throws IllegalArgumentException if the configuration is not valid or the counters are larger than 8 bits
+     */
+    public BranchPredictor createSpecialized() {
+        if (!isValid()) throw new IllegalArgumentException("invalid predictor configuration: " + this);
+        if (SCSize > 8) throw new IllegalArgumentException("specialized predictors support at most 8 bit counters");
+
+        try {
+            return (BranchPredictor) getSpecializedConstructor(
+                    new PredictorConfig(type, BHRSize, SCSize, branchInstructionSize, KSize, StorageMode.DENSE,
+                            countMode)).invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("can not create the specialized predictor", e);
+        }
+    }
+
+    private static synchronized MethodHandle getSpecializedConstructor(PredictorConfig config) {
+        MethodHandle constructor = SPECIALIZED_CONSTRUCTORS.get(config);
+        if (constructor == null) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup()
+                        .defineHiddenClassWithClassData(getSpecializedTemplate(), config, true);
+                constructor = lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(BranchPredictor.class));
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("can not define the specialized predictor", e);
+            }
+            SPECIALIZED_CONSTRUCTORS.put(config, constructor);
+        }
+        return constructor;
+    }
+
+    private static byte[] getSpecializedTemplate() {
+        if (specializedTemplate == null) {
+            try (InputStream in = PredictorConfig.class.getResourceAsStream("SpecializedPredictor.class")) {
+                if (in == null) throw new RuntimeException("the specialized predictor template is not found");
+                specializedTemplate = in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return specializedTemplate;
+    }
+
+    /**
+     * @return the number of pattern history tables
+     */
+    public long getTableCount() {
+        return count(type.getTableScope());
+    }
+
+    /**
+     * @return the number of rows of each pattern history table
+     */
+    public long getTableRows() {
+        return 1L << BHRSize;
+    }
+
+    /**
+     * @return the number of branch history registers
+     */
+    public long getRegisterCount() {
+        return count(type.getHistoryScope());
+    }
+
+    /**
+     * the storage cost of the predictor in hardware (all the counters and history registers)
+     *
+     * @return the number of bits
+     */
+    public long getStorageBits() {
+        return getTableCount() * getTableRows() * SCSize + getRegisterCount() * BHRSize;
+    }
+
+    /**
+     * the worst case heap usage of the predictor in the simulator when all the entries are touched
+     *
+     * @return the number of bytes
+     */
+    public long estimateHeapBytes() {
+        long entries = getTableCount() * getTableRows();
+        long registers = getRegisterCount();
+        if (storageMode == StorageMode.DENSE) {
+            // one byte per block and one bit per block for the allocation bit set
+            return entries + entries / 8 + registers * Long.BYTES + registers / 8;
+        }
+        return (entries + registers) * MAPPED_ENTRY_BYTES;
+    }
+
+    private long count(PredictorType.Scope scope) {
+        switch (scope) {
+            case PER_ADDRESS:
+                return 1L << branchInstructionSize;
+            case PER_SET:
+                return 1L << KSize;
+            default:
+                return 1;
+        }
+    }
+
+    public PredictorType getType() {
+        return type;
+    }
+
+    public int getBHRSize() {
+        return BHRSize;
+    }
+
+    public int getSCSize() {
+        return SCSize;
+    }
+
+    public int getBranchInstructionSize() {
+        return branchInstructionSize;
+    }
+
+    public int getKSize() {
+        return KSize;
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PredictorConfig)) return false;
+        PredictorConfig that = (PredictorConfig) o;
+        return BHRSize == that.BHRSize && SCSize == that.SCSize && branchInstructionSize == that.branchInstructionSize
+                && KSize == that.KSize && type == that.type && storageMode == that.storageMode
+                && countMode == that.countMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, BHRSize, SCSize, branchInstructionSize, KSize, storageMode, countMode);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(type.name());
+        sb.append("{BHRSize=").append(BHRSize).append(", SCSize=").append(SCSize);
+        if (type.usesBranchInstructionSize()) sb.append(", branchInstructionSize=").append(branchInstructionSize);
+        if (type.usesKSize()) sb.append(", KSize=").append(KSize);
+        sb.append(", storageMode=").append(storageMode).append(", countMode=").append(countMode).append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package predictors;
+
+/*
+ * our predictor snapshot format
+ * ------------------------------------------------------
+ * LAYOUT (big endian, java.io.DataOutput):
+ *   int   magic ("BPSS")
+ *   short version
+ *   UTF   the class name of the predictor (the name of the template for a hidden class)
+ *   the state of the predictor (see the save method of the predictor and its devices)
+ *
+ * the snapshot does not keep the parameters of the predictor. the predictor which restores the snapshot
+ * must be created with the same parameters, every device checks its sizes while it is restored.
+ * -------------------------------------------------------
+ */
+
+import utils.Snapshotable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * saves and restores the full state of a predictor, so a warmed up predictor can be reused by many runs
+ */
+public final class PredictorSnapshot {
+    private static final int MAGIC = 0x42505353; // "BPSS"
+    private static final short VERSION = 1;
+
+    private PredictorSnapshot() {
+        // make the constructor private to avoid instantiating.
+    }
+
+    /**
+     * write the snapshot of the predictor
+     *
+     * @param predictor the predictor
+     * @param out       the destination of the snapshot
+     * @throws IOException              if the snapshot can not be written
+     * @throws IllegalArgumentException if the predictor does not support snapshots
+     */
+    public static void save(BranchPredictor predictor, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeUTF(getTypeName(predictor));
+        snapshotable(predictor).save(data);
+        data.flush();
+    }
+
+    /**
+     * replace the state of the predictor with the snapshot. every device is replaced only when its saved state is
+     * read and checked completely, but the devices which are restored before a failed device keep their new state.
+     * so a predictor must not be used after a failed restore until a valid snapshot is restored in it.
+     *
+     * @param predictor the predictor which is created with the same parameters as the saved predictor
+     * @param in        the source of the snapshot
+     * @throws IOException              if the snapshot can not be read or it does not match the predictor
+     * @throws IllegalArgumentException if the predictor does not support snapshots
+     */
+    public static void restore(BranchPredictor predictor, InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) throw new IOException("file is not a predictor snapshot");
+        if (data.readShort() != VERSION) throw new IOException("unsupported predictor snapshot version");
+
+        String type = data.readUTF();
+        if (!type.equals(getTypeName(predictor)))
+            throw new IOException("snapshot of " + type + " can not be restored in " + getTypeName(predictor));
+
+        snapshotable(predictor).restore(data);
+    }
+
+    /**
+     * @param predictor the predictor
+     * @param path      the snapshot file
+     * @throws IOException if the snapshot can not be written
+     */
+    public static void save(BranchPredictor predictor, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            save(predictor, out);
+        }
+    }
+
+    /**
+     * @param predictor the predictor which is created with the same parameters as the saved predictor
+     * @param path      the snapshot file
+     * @throws IOException if the snapshot can not be read or it does not match the predictor
+     */
+    public static void restore(BranchPredictor predictor, Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            restore(predictor, in);
+        }
+    }
+
+    /**
+     * save the snapshot in memory, so it can be restored in many predictors without touching the disk
+     *
+     * @param predictor the predictor
+     * @return the snapshot
+     */
+    public static byte[] toByteArray(BranchPredictor predictor) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            save(predictor, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param predictor the predictor which is created with the same parameters as the saved predictor
+     * @param snapshot  the snapshot which is saved by toByteArray
+     * @throws IOException if the snapshot does not match the predictor
+     */
+    public static void restore(BranchPredictor predictor, byte[] snapshot) throws IOException {
+        restore(predictor, new ByteArrayInputStream(snapshot));
+    }
+
+    /**
+     * @return the class name of the predictor. a hidden class is named by its template (the name before the slash),
+     * so the snapshot of a specialized predictor is restored in every specialized predictor with the same sizes.
+     */
+    private static String getTypeName(BranchPredictor predictor) {
+        String name = predictor.getClass().getName();
+        int slash = name.indexOf('/');
+        return slash < 0 ? name : name.substring(0, slash);
+    }
+
+    private static Snapshotable snapshotable(BranchPredictor predictor) {
+        if (!(predictor instanceof Snapshotable))
+            throw new IllegalArgumentException(predictor.getClass().getName() + " does not support snapshots");
+        return (Snapshotable) predictor;
+    }
+}
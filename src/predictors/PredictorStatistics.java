@@ -0,0 +1,159 @@
+package predictors;
+
+import utils.Bit;
+import utils.Monitorable;
+
+import java.util.Arrays;
+
+/**
+ * the statistics of a predictor in primitive counters. the predictor records every prediction and update,
+ * so the counters are only touched when the statistics are enabled.
+ */
+public class PredictorStatistics implements Monitorable {
+    private static final int MAX_HISTOGRAM_BITS = 16;
+
+    private final int counterSize;
+    private final int histogramShift; // counters bigger than 16 bits are grouped by their 16 leftmost bits
+    private final long[] counterHistogram;
+    private long predictions;
+    private long mispredictions;
+    private long updates;
+    private long tableAccesses;
+    private long firstTouches;
+    private long historyFirstTouches;
+
+    /**
+     * @param counterSize the number of bits of the saturating counters
+     */
+    public PredictorStatistics(int counterSize) {
+        this.counterSize = counterSize;
+        this.histogramShift = Math.max(0, counterSize - MAX_HISTOGRAM_BITS);
+        this.counterHistogram = new long[1 << (counterSize - histogramShift)];
+    }
+
+    /**
+     * record a prediction (a single table read) which does not allocate a history register
+     *
+     * @param counter    the counter value which the prediction is based on
+     * @param firstTouch true if the table entry is allocated by this read
+     */
+    public void recordPrediction(int counter, boolean firstTouch) {
+        recordPrediction(counter, firstTouch, false);
+    }
+
+    /**
+     * record a prediction (a single table read)
+     *
+     * @param counter           the counter value which the prediction is based on
+     * @param firstTouch        true if the table entry is allocated by this read
+     * @param historyFirstTouch true if the per address or per set history register is allocated by this read
+     */
+    public void recordPrediction(int counter, boolean firstTouch, boolean historyFirstTouch) {
+        predictions++;
+        tableAccesses++;
+        counterHistogram[counter >>> histogramShift]++;
+        if (firstTouch) firstTouches++;
+        if (historyFirstTouch) historyFirstTouches++;
+    }
+
+    /**
+     * record an update (a single table write)
+     *
+     * @param predicted the predicted result of the branch (true if taken)
+     * @param actual    the actual result of the branch (true if taken)
+     */
+    public void recordUpdate(boolean predicted, boolean actual) {
+        updates++;
+        tableAccesses++;
+        if (predicted != actual) mispredictions++;
+    }
+
+    /**
+     * reset all the counters
+     */
+    public void reset() {
+        predictions = 0;
+        mispredictions = 0;
+        updates = 0;
+        tableAccesses = 0;
+        firstTouches = 0;
+        historyFirstTouches = 0;
+        Arrays.fill(counterHistogram, 0);
+    }
+
+    public long getPredictions() {
+        return predictions;
+    }
+
+    public long getMispredictions() {
+        return mispredictions;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getTableAccesses() {
+        return tableAccesses;
+    }
+
+    /**
+     * @return the number of PHT entries which are allocated by a prediction
+     */
+    public long getFirstTouches() {
+        return firstTouches;
+    }
+
+    /**
+     * @return the number of registers of the BHR bank which are allocated by a prediction (zero for a global BHR)
+     */
+    public long getHistoryFirstTouches() {
+        return historyFirstTouches;
+    }
+
+    /**
+     * @return the ratio of correct predictions of the updated branches (zero if nothing is updated)
+     */
+    public double getAccuracy() {
+        return updates == 0 ? 0 : 1 - (double) mispredictions / updates;
+    }
+
+    /**
+     * @param instructions the number of executed instructions (not only branches)
+     * @return mispredictions per kilo instructions
+     */
+    public double getMPKI(long instructions) {
+        if (instructions <= 0) throw new IllegalArgumentException("number of instructions must be positive");
+        return mispredictions * 1000.0 / instructions;
+    }
+
+    /**
+     * @return the number of predictions which are made with each counter value (a copy)
+     */
+    public long[] getCounterHistogram() {
+        return counterHistogram.clone();
+    }
+
+    public int getCounterSize() {
+        return counterSize;
+    }
+
+    @Override
+    public String monitor() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("predictions: ").append(predictions).append("\n");
+        sb.append("mispredictions: ").append(mispredictions).append("\n");
+        sb.append(String.format("accuracy: %.5f\n", getAccuracy()));
+        sb.append("table accesses: ").append(tableAccesses).append("\n");
+        sb.append("first touches: ").append(firstTouches).append("\n");
+        sb.append("history first touches: ").append(historyFirstTouches).append("\n");
+        sb.append("counter histogram:\n");
+        int bits = counterSize - histogramShift;
+        for (int value = 0; value < counterHistogram.length; value++) {
+            if (counterHistogram[value] == 0) continue;
+            sb.append("  ").append(Bit.toBinaryString(value, bits)).append(": ")
+                    .append(counterHistogram[value]).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package predictors;
+
+/**
+ * the two level adaptive predictor schemes. the first letter is the scope of the branch history (global,
+ * per address or per set) and the last letter is the scope of the pattern history tables.
+ */
+public enum PredictorType {
+    GAg(Scope.GLOBAL, Scope.GLOBAL),
+    GAp(Scope.GLOBAL, Scope.PER_ADDRESS),
+    GAs(Scope.GLOBAL, Scope.PER_SET),
+    PAg(Scope.PER_ADDRESS, Scope.GLOBAL),
+    PAp(Scope.PER_ADDRESS, Scope.PER_ADDRESS),
+    PAs(Scope.PER_ADDRESS, Scope.PER_SET),
+    SAg(Scope.PER_SET, Scope.GLOBAL),
+    SAp(Scope.PER_SET, Scope.PER_ADDRESS),
+    SAs(Scope.PER_SET, Scope.PER_SET);
+
+    /**
+     * the number of history registers or pattern history tables of a predictor
+     */
+    public enum Scope {
+        GLOBAL, // a single one
+        PER_ADDRESS, // one for each branch address (2^branchInstructionSize)
+        PER_SET // one for each set of branch addresses (2^KSize)
+    }
+
+    private final Scope historyScope;
+    private final Scope tableScope;
+
+    PredictorType(Scope historyScope, Scope tableScope) {
+        this.historyScope = historyScope;
+        this.tableScope = tableScope;
+    }
+
+    public Scope getHistoryScope() {
+        return historyScope;
+    }
+
+    public Scope getTableScope() {
+        return tableScope;
+    }
+
+    /**
+     * @return true if the predictor uses the branch address bits
+     */
+    public boolean usesBranchInstructionSize() {
+        return this != GAg;
+    }
+
+    /**
+     * @return true if the predictor hashes the branch address into sets
+     */
+    public boolean usesKSize() {
+        return historyScope == Scope.PER_SET || tableScope == Scope.PER_SET;
+    }
+
+    /**
+     * @return true if the history registers and the pattern history tables are selected by the branch address,
+     * so branches of different addresses (or sets) never share any state
+     */
+    public boolean isPartitionable() {
+        return historyScope != Scope.GLOBAL && tableScope != Scope.GLOBAL;
+    }
+}
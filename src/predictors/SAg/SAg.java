@@ -1,115 +1,39 @@
 package predictors.SAg;
 
-import devices.*;
-import predictors.BranchInstruction;
-import predictors.BranchPredictor;
-import utils.Bit;
-import utils.BranchResult;
+import predictors.PredictorType;
+import predictors.TwoLevelPredictor;
 import utils.CountMode;
+import utils.StorageMode;
 
-import java.util.Arrays;
-
-public class SAg implements BranchPredictor {
-    private final int branchInstructionSize;
-    private final int KSize;
-    private final ShiftRegister SC; // saturating counter register
-    private final RegisterBank PSBHR; // per set branch history register
-    private final Cache<Bit[], Bit[]> PHT; // page history table
-
-
+public class SAg extends TwoLevelPredictor {
     public SAg(int BHRSize, int SCSize, int branchInstructionSize, int KSize) {
-        this.branchInstructionSize = branchInstructionSize;
-        this.KSize = KSize;
-
-        // Initialize the PABHR with the given bhr and Ksize
-        PSBHR = new RegisterBank(KSize, BHRSize);
-
-        // Initialize the PHT with a size of 2^size and each entry having a saturating counter of size "SCSize"
-        PHT = new PageHistoryTable((int) Math.pow(2, BHRSize), SCSize);
-
-        // Initialize the SC register
-        SC = new SIPORegister("sc", SCSize, null);
-    }
-
-    @Override
-    public BranchResult predict(BranchInstruction instruction) {
-        // get RB selector
-        Bit[] selector = getRBAddressLine(instruction.getInstructionAddress());
-
-        // select the BHR based on the selector
-        ShiftRegister correspondingBHR = PSBHR.read(selector);
-
-        // Get the associated block with the current value of the BHR register from the PHT
-        Bit[] cacheBlock = PHT.setDefault(correspondingBHR.read(), getDefaultBlock());
-
-        // load the block into the register
-        SC.load(cacheBlock);
-
-        // return the predicated outcome of the branch instruction based on the value of the MSB
-        return cacheBlock[0].getValue() ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
-    }
-
-    @Override
-    public void update(BranchInstruction branchInstruction, BranchResult actual) {
-        // get the hash value of branch address
-        Bit[] selector = getRBAddressLine(branchInstruction.getInstructionAddress());
-
-        // check the predication result
-        boolean isTaken = actual == BranchResult.TAKEN;
-
-        // update saturating counter
-        Bit[] nValue = CombinationalLogic.count(SC.read(), isTaken, CountMode.SATURATING);
-
-        // get register from register bank
-        ShiftRegister correspondingBHR = PSBHR.read(selector);
-
-        // update the PHT
-        PHT.put(correspondingBHR.read(), nValue);
-
-        // update global history
-        correspondingBHR.insert(isTaken ? Bit.ONE : Bit.ZERO);
-        PSBHR.write(selector, correspondingBHR.read());
-    }
-
-    private Bit[] getRBAddressLine(Bit[] branchAddress) {
-        // hash the branch address
-        return hash(branchAddress);
+        this(BHRSize, SCSize, branchInstructionSize, KSize, StorageMode.MAPPED);
     }
 
     /**
-     * hash N bits to a K bit value
+     * Creates a new SAg predictor with the given BHR register size and storage model of the BHRs and PHT.
      *
-     * @param bits program counter
-     * @return hash value of fist M bits of `bits` in K bits
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param KSize                 the number of bits which is used for selecting a set
+     * @param storageMode           the storage model which is used for the BHRs and PHT
      */
-    private Bit[] hash(Bit[] bits) {
-        Bit[] hash = new Bit[KSize];
-
-        // XOR the first M bits of the PC to produce the hash
-        for (int i = 0; i < branchInstructionSize; i++) {
-            int j = i % KSize;
-            if (hash[j] == null) {
-                hash[j] = bits[i];
-            } else {
-                Bit xorProduce = hash[j].getValue() ^ bits[i].getValue() ? Bit.ONE : Bit.ZERO;
-                hash[j] = xorProduce;
-
-            }
-        }
-        return hash;
+    public SAg(int BHRSize, int SCSize, int branchInstructionSize, int KSize, StorageMode storageMode) {
+        this(BHRSize, SCSize, branchInstructionSize, KSize, storageMode, CountMode.SATURATING);
     }
 
     /**
-     * @return a zero series of bits as default value of cache block
+     * Creates a new SAg predictor with the given BHR register size, counter mode and storage model of the BHRs and PHT.
+     *
+     * @param BHRSize               the size of the BHR register
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction
+     * @param KSize                 the number of bits which is used for selecting a set
+     * @param storageMode           the storage model which is used for the BHRs and PHT
+     * @param countMode             the counter mode which is used for updating the saturating counters
      */
-    private Bit[] getDefaultBlock() {
-        Bit[] defaultBlock = new Bit[SC.getLength()];
-        Arrays.fill(defaultBlock, Bit.ZERO);
-        return defaultBlock;
-    }
-
-    @Override
-    public String monitor() {
-        return null;
+    public SAg(int BHRSize, int SCSize, int branchInstructionSize, int KSize, StorageMode storageMode, CountMode countMode) {
+        super(PredictorType.SAg, BHRSize, SCSize, branchInstructionSize, KSize, storageMode, countMode);
     }
 }
@@ -0,0 +1,263 @@
+package predictors;
+
+import devices.CombinationalLogic;
+import utils.Bit;
+import utils.BranchResult;
+import utils.Snapshotable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * The template of the specialized predictors. This class is never loaded by its own name:
+ * PredictorConfig.createSpecialized defines a hidden class from its bytes for each configuration and passes the
+ * configuration as the class data. All the sizes, masks and scopes are static finals of the hidden class, so the
+ * JIT folds them into the code of each copy and each copy has its own profile. The state is kept in primitive
+ * arrays like the dense storage model and the predictions and the statistics are the same as the predictor which
+ * the configuration creates.
+ */
+final class SpecializedPredictor implements BranchPredictor, Snapshotable {
+    private static final PredictorConfig CONFIG = classData();
+    private static final PredictorType.Scope HISTORY_SCOPE = CONFIG.getType().getHistoryScope();
+    private static final PredictorType.Scope TABLE_SCOPE = CONFIG.getType().getTableScope();
+    private static final int BRANCH_INSTRUCTION_SIZE = CONFIG.getBranchInstructionSize();
+    private static final int K_SIZE = CONFIG.getKSize();
+    private static final long ADDRESS_MASK = (1L << BRANCH_INSTRUCTION_SIZE) - 1;
+    private static final int BHR_SIZE = CONFIG.getBHRSize();
+    private static final int BHR_SHIFT = BHR_SIZE - 1; // the position of the MSB of a BHR
+    private static final int PHT_SIZE = 1 << BHR_SIZE;
+    private static final int SC_SIZE = CONFIG.getSCSize();
+    private static final byte[] TRANSITIONS = CombinationalLogic.getTransitions(SC_SIZE, CONFIG.getCountMode());
+
+    private final byte[] PHT = new byte[(int) (CONFIG.getTableCount() * PHT_SIZE)]; // the counters of all the PHTs
+    private final long[] PHTAllocated = new long[(PHT.length + 63) >>> 6]; // bit set of the touched counters
+    private final long[] BHR = new long[(int) CONFIG.getRegisterCount()]; // the branch history registers
+    private final long[] BHRAllocated = new long[(BHR.length + 63) >>> 6]; // bit set of the touched registers
+    private int SC; // the counter of the last prediction
+    private PredictorStatistics statistics; // null when the statistics are disabled
+
+    SpecializedPredictor() {
+    }
+
+    private static PredictorConfig classData() {
+        try {
+            PredictorConfig config = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME,
+                    PredictorConfig.class);
+            if (config == null)
+                throw new IllegalStateException("the template must be defined by PredictorConfig.createSpecialized");
+            return config;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public BranchResult predict(BranchInstruction branchInstruction) {
+        return predict(getBranchAddress(branchInstruction.getInstructionAddress()));
+    }
+
+    @Override
+    public BranchResult predict(CompactBranchInstruction branchInstruction) {
+        return predict(getBranchAddress(branchInstruction));
+    }
+
+    @Override
+    public void update(BranchInstruction branchInstruction, BranchResult actual) {
+        update(getBranchAddress(branchInstruction.getInstructionAddress()), actual == BranchResult.TAKEN);
+    }
+
+    @Override
+    public void update(CompactBranchInstruction branchInstruction, BranchResult actual) {
+        update(getBranchAddress(branchInstruction), actual == BranchResult.TAKEN);
+    }
+
+    @Override
+    public BranchResult predict(CompactBranchInstruction branchInstruction, Prediction prediction) {
+        long instructionAddress = getBranchAddress(branchInstruction);
+        int historySelector = select(HISTORY_SCOPE, instructionAddress);
+        if (statistics != null) recordPrediction(instructionAddress, historySelector);
+        int entry = getEntry(instructionAddress, historySelector);
+        int cacheBlock = PHT[entry] & 0xFF;
+        prediction.set(branchInstruction.getInstructionAddress(), branchInstruction.getInstructionAddressSize(), entry,
+                historySelector, cacheBlock, SC_SIZE);
+        return prediction.getResult();
+    }
+
+    @Override
+    public void update(Prediction prediction, BranchResult actual) {
+        boolean isTaken = actual == BranchResult.TAKEN;
+        if (statistics != null) statistics.recordUpdate(prediction.isTaken(), isTaken);
+
+        // count the current value of the entry, so the updates of the other branches in flight are kept
+        int entry = (int) prediction.getEntry();
+        PHT[entry] = TRANSITIONS[((PHT[entry] & 0xFF) << 1) | (isTaken ? 1 : 0)];
+        insert(prediction.getHistorySelector(), isTaken);
+    }
+
+    @Override
+    public int predictAndUpdate(long[] instructionAddresses, int instructionAddressSize, boolean[] outcomes,
+                                int offset, int length, boolean[] predictions) {
+        int addressShift = Math.max(0, instructionAddressSize - BRANCH_INSTRUCTION_SIZE); // see Bit.firstBits
+        PredictorStatistics statistics = this.statistics;
+        int hits = 0;
+        int cacheBlock = 0;
+
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long instructionAddress = instructionAddresses[i] >>> addressShift;
+            boolean isTaken = outcomes[i];
+
+            // predict the branch based on the value of the MSB
+            int historySelector = select(HISTORY_SCOPE, instructionAddress);
+            if (statistics != null) recordPrediction(instructionAddress, historySelector);
+            int entry = getEntry(instructionAddress, historySelector);
+            cacheBlock = PHT[entry] & 0xFF;
+            boolean prediction = (cacheBlock >>> (SC_SIZE - 1)) != 0;
+            if (statistics != null) statistics.recordUpdate(prediction, isTaken);
+            if (predictions != null) predictions[i] = prediction;
+            if (prediction == isTaken) hits++;
+
+            // update saturating counter and branch history
+            PHT[entry] = TRANSITIONS[(cacheBlock << 1) | (isTaken ? 1 : 0)];
+            insert(historySelector, isTaken);
+        }
+
+        // the SC register holds the last counter just like after a single predict and update
+        if (length > 0) SC = cacheBlock;
+        return hits;
+    }
+
+    private BranchResult predict(long instructionAddress) {
+        int historySelector = select(HISTORY_SCOPE, instructionAddress);
+        if (statistics != null) recordPrediction(instructionAddress, historySelector);
+        SC = PHT[getEntry(instructionAddress, historySelector)] & 0xFF;
+        return (SC >>> (SC_SIZE - 1)) != 0 ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
+    }
+
+    private void update(long instructionAddress, boolean isTaken) {
+        if (statistics != null) statistics.recordUpdate((SC >>> (SC_SIZE - 1)) != 0, isTaken);
+
+        int historySelector = select(HISTORY_SCOPE, instructionAddress);
+        PHT[getEntry(instructionAddress, historySelector)] = TRANSITIONS[(SC << 1) | (isTaken ? 1 : 0)];
+        insert(historySelector, isTaken);
+    }
+
+    /**
+     * record a prediction before its counter and its BHR are marked as touched
+     */
+    private void recordPrediction(long instructionAddress, int historySelector) {
+        boolean historyFirstTouch = HISTORY_SCOPE != PredictorType.Scope.GLOBAL
+                && (BHRAllocated[historySelector >>> 6] & (1L << historySelector)) == 0;
+        int entry = select(TABLE_SCOPE, instructionAddress) * PHT_SIZE + (int) BHR[historySelector];
+        boolean firstTouch = (PHTAllocated[entry >>> 6] & (1L << entry)) == 0;
+        statistics.recordPrediction(PHT[entry] & 0xFF, firstTouch, historyFirstTouch);
+    }
+
+    /**
+     * @return the index of the counter of the branch. the counter and the BHR are marked as touched.
+     */
+    private int getEntry(long instructionAddress, int historySelector) {
+        if (HISTORY_SCOPE != PredictorType.Scope.GLOBAL) BHRAllocated[historySelector >>> 6] |= 1L << historySelector;
+        int entry = select(TABLE_SCOPE, instructionAddress) * PHT_SIZE + (int) BHR[historySelector];
+        PHTAllocated[entry >>> 6] |= 1L << entry;
+        return entry;
+    }
+
+    private static long getBranchAddress(Bit[] instructionAddress) {
+        return Bit.toLong(instructionAddress, Math.min(instructionAddress.length, BRANCH_INSTRUCTION_SIZE));
+    }
+
+    private static long getBranchAddress(CompactBranchInstruction branchInstruction) {
+        return Bit.firstBits(branchInstruction.getInstructionAddress(),
+                branchInstruction.getInstructionAddressSize(), BRANCH_INSTRUCTION_SIZE);
+    }
+
+    private static int select(PredictorType.Scope scope, long instructionAddress) {
+        if (scope == PredictorType.Scope.PER_ADDRESS) return (int) (instructionAddress & ADDRESS_MASK);
+        if (scope == PredictorType.Scope.PER_SET)
+            return CombinationalLogic.hash(instructionAddress, BRANCH_INSTRUCTION_SIZE, K_SIZE);
+        return 0;
+    }
+
+    private void insert(int historySelector, boolean isTaken) {
+        BHR[historySelector] = (BHR[historySelector] >>> 1) | (isTaken ? 1L << BHR_SHIFT : 0);
+    }
+
+    @Override
+    public void setStatisticsEnabled(boolean enabled) {
+        statistics = enabled ? new PredictorStatistics(SC_SIZE) : null;
+    }
+
+    @Override
+    public PredictorStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * save the counter mode, the sizes and all the arrays (the arrays are dense, so they are saved as they are)
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state can not be written
+     */
+    @Override
+    public void save(DataOutput out) throws IOException {
+        out.writeByte(CONFIG.getCountMode().ordinal());
+        out.writeInt(BHR_SIZE);
+        out.writeInt(SC_SIZE);
+        out.writeInt(BHR.length);
+        out.writeInt(PHT.length);
+        for (long word : BHRAllocated) out.writeLong(word);
+        for (long register : BHR) out.writeLong(register);
+        for (long word : PHTAllocated) out.writeLong(word);
+        out.write(PHT);
+        out.writeByte(SC);
+    }
+
+    /**
+     * the state is read and checked completely before the predictor is changed
+     *
+     * @param in the source of the state
+     * @throws IOException if the state can not be read or it is saved from a predictor with other parameters
+     */
+    @Override
+    public void restore(DataInput in) throws IOException {
+        if (in.readUnsignedByte() != CONFIG.getCountMode().ordinal())
+            throw new IOException("snapshot counter mode does not match the predictor");
+        if (in.readInt() != BHR_SIZE || in.readInt() != SC_SIZE || in.readInt() != BHR.length
+                || in.readInt() != PHT.length)
+            throw new IOException("snapshot sizes do not match the predictor");
+
+        long[] BHRAllocated = readWords(in, this.BHRAllocated.length);
+        long[] BHR = readWords(in, this.BHR.length);
+        for (long register : BHR) {
+            if ((register >>> BHR_SIZE) != 0) throw new IOException("snapshot register value is wider than the BHR");
+        }
+        long[] PHTAllocated = readWords(in, this.PHTAllocated.length);
+        byte[] PHT = new byte[this.PHT.length];
+        in.readFully(PHT);
+        for (byte block : PHT) {
+            if (((block & 0xFF) >>> SC_SIZE) != 0) throw new IOException("snapshot counter is wider than the counter");
+        }
+        int SC = in.readUnsignedByte();
+        if ((SC >>> SC_SIZE) != 0) throw new IOException("snapshot counter is wider than the counter");
+
+        System.arraycopy(BHRAllocated, 0, this.BHRAllocated, 0, BHRAllocated.length);
+        System.arraycopy(BHR, 0, this.BHR, 0, BHR.length);
+        System.arraycopy(PHTAllocated, 0, this.PHTAllocated, 0, PHTAllocated.length);
+        System.arraycopy(PHT, 0, this.PHT, 0, PHT.length);
+        this.SC = SC;
+    }
+
+    private static long[] readWords(DataInput in, int length) throws IOException {
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) words[i] = in.readLong();
+        return words;
+    }
+
+    @Override
+    public String monitor() {
+        return "specialized predictor " + CONFIG + "\n";
+    }
+}
@@ -0,0 +1,35 @@
+package predictors;
+
+import utils.BranchResult;
+
+/**
+ * A predictor with a global branch history which can be updated speculatively. A front end inserts the
+ * predicted outcome in the history as soon as the branch is predicted, so the next branches see it before
+ * the branch is resolved. A mispredicted branch repairs the history and the counters are updated when the
+ * branch retires.
+ */
+public interface SpeculativePredictor extends BranchPredictor {
+    /**
+     * Save the history in the prediction handle and insert the predicted outcome in the history
+     *
+     * @param prediction the handle which is filled by predict
+     */
+    void speculate(Prediction prediction);
+
+    /**
+     * Restore the history which is saved by speculate and insert the actual outcome. The branches which are
+     * speculated after this branch must not be in flight anymore.
+     *
+     * @param prediction the handle of the mispredicted branch
+     * @param actual     the actual result of branch (taken or not)
+     */
+    void repair(Prediction prediction, BranchResult actual);
+
+    /**
+     * Update the counter of a speculated branch without changing the history
+     *
+     * @param prediction the handle which is filled by predict
+     * @param actual     the actual result of branch (taken or not)
+     */
+    void retire(Prediction prediction, BranchResult actual);
+}
@@ -0,0 +1,470 @@
+package predictors;
+
+import devices.*;
+import utils.Bit;
+import utils.BranchResult;
+import utils.CountMode;
+import utils.Snapshotable;
+import utils.StorageMode;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A two level adaptive predictor which is parameterized by the scope of its branch history and the scope of its
+ * pattern history tables (see PredictorType). A branch selects a history register by its history scope and a
+ * pattern history table by its table scope, and the value of the history register selects the counter in the
+ * table. All the nine schemes run through the same integer index computation:
+ * GLOBAL selects the single register or table, PER_ADDRESS selects it by the branch address and PER_SET selects
+ * it by the K bit hash of the branch address.
+ * The branch address is the first (leftmost) branchInstructionSize bits of the instruction address, like the
+ * original predictors. A compact instruction keeps the size of its address, so the bit array and the compact form
+ * of an instruction (see CompactBranchInstruction.of) select the same register and table.
+ */
+public class TwoLevelPredictor implements BranchPredictor, Snapshotable {
+    private final PredictorType type;
+    private final CountMode countMode; // the counter mode of the saturating counters
+    private PredictorStatistics statistics; // null when the statistics are disabled
+    private final int branchInstructionSize;
+    private final int KSize;
+    private final long addressMask; // selects the lowest branchInstructionSize bits of the branch address
+    private final ShiftRegister SC; // saturating counter register
+    private final ShiftRegister BHR; // global branch history register (null unless the history scope is GLOBAL)
+    private final ShiftRegisterBank BHRBank; // per address or per set branch history registers (null for GLOBAL)
+    private final CounterTable PHT; // the pattern history tables
+    private final long PHTSize; // number of rows in each PHT
+
+    /**
+     * Creates a new predictor of the given scheme.
+     *
+     * @param type                  the scopes of the branch history and the pattern history tables
+     * @param BHRSize               the size of the BHR registers
+     * @param SCSize                the size of the register which hold the saturating counter value
+     * @param branchInstructionSize the number of bits which is used for saving a branch instruction (unused by GAg)
+     * @param KSize                 the number of bits which is used for selecting a set (unused without PER_SET)
+     * @param storageMode           the storage model which is used for the BHRs and PHTs
+     * @param countMode             the counter mode which is used for updating the saturating counters
+     * @throws IllegalArgumentException if a register or a counter can not be selected by an integer index
+     */
+    public TwoLevelPredictor(PredictorType type, int BHRSize, int SCSize, int branchInstructionSize, int KSize,
+                             StorageMode storageMode, CountMode countMode) {
+        this.type = type;
+        this.countMode = countMode;
+        this.branchInstructionSize = branchInstructionSize;
+        this.KSize = KSize;
+        this.addressMask = (1L << branchInstructionSize) - 1;
+        boolean dense = storageMode == StorageMode.DENSE;
+
+        // the registers and the tables are selected by int values and a counter by a long value
+        if (uses(PredictorType.Scope.PER_ADDRESS) && (branchInstructionSize < 1 || branchInstructionSize > 31))
+            throw new IllegalArgumentException("branch instruction size must be between 1 and 31 bits");
+        if (uses(PredictorType.Scope.PER_SET) && (KSize < 1 || KSize > 31))
+            throw new IllegalArgumentException("set selector size must be between 1 and 31 bits");
+        int tableSelectorSize = type.getTableScope() == PredictorType.Scope.GLOBAL
+                ? 0 : getSelectorSize(type.getTableScope());
+        if (BHRSize < 1 || tableSelectorSize + BHRSize > 62)
+            throw new IllegalArgumentException("the pattern history tables can not be addressed by a long index");
+        if (dense && BHRSize > 30)
+            throw new IllegalArgumentException("dense PHT is too large to be allocated");
+
+        // Initialize the single BHR or a bank with a register for each address (or set)
+        if (type.getHistoryScope() == PredictorType.Scope.GLOBAL) {
+            BHR = dense ? new LongShiftRegister("bhr", BHRSize, null) : new SIPORegister("bhr", BHRSize, null);
+            BHRBank = null;
+        } else {
+            int selectorSize = getSelectorSize(type.getHistoryScope());
+            BHR = null;
+            BHRBank = dense ? new DenseRegisterBank(selectorSize, BHRSize) : new RegisterBank(selectorSize, BHRSize);
+        }
+
+        // Initialize the single PHT or a PHT for each address (or set) with 2^BHRSize rows and SCSize as block size
+        PHTSize = 1L << BHRSize;
+        if (type.getTableScope() == PredictorType.Scope.GLOBAL) {
+            PHT = dense ? new DensePageHistoryTable((int) PHTSize, SCSize) : new PageHistoryTable(PHTSize, SCSize);
+        } else {
+            PHT = dense
+                    ? new DensePerAddressPageHistoryTable(tableSelectorSize, (int) PHTSize, SCSize)
+                    : new PerAddressPageHistoryTable(tableSelectorSize, PHTSize, SCSize);
+        }
+
+        // Initialize the SC register
+        SC = dense ? new LongShiftRegister("sc", SCSize, null) : new SIPORegister("sc", SCSize, null);
+    }
+
+    /**
+     * Predicts the result of a branch instruction
+     *
+     * @param branchInstruction the branch instruction
+     * @return the predicted outcome of the branch instruction (taken or not taken)
+     */
+    @Override
+    public BranchResult predict(BranchInstruction branchInstruction) {
+        return predict(getBranchAddress(branchInstruction.getInstructionAddress()));
+    }
+
+    /**
+     * Predicts the result of a branch instruction without converting the instruction to bit arrays
+     *
+     * @param branchInstruction the branch instruction
+     * @return the predicted outcome of the branch instruction (taken or not taken)
+     */
+    @Override
+    public BranchResult predict(CompactBranchInstruction branchInstruction) {
+        return predict(getBranchAddress(branchInstruction));
+    }
+
+    /**
+     * Updates the value in the cache based on actual branch result
+     *
+     * @param branchInstruction the branch instruction
+     * @param actual            the actual result of branch (Taken or Not)
+     */
+    @Override
+    public void update(BranchInstruction branchInstruction, BranchResult actual) {
+        update(getBranchAddress(branchInstruction.getInstructionAddress()), actual == BranchResult.TAKEN);
+    }
+
+    /**
+     * Updates the value in the cache based on actual branch result without converting the instruction to bit arrays
+     *
+     * @param branchInstruction the branch instruction
+     * @param actual            the actual result of branch (Taken or Not)
+     */
+    @Override
+    public void update(CompactBranchInstruction branchInstruction, BranchResult actual) {
+        update(getBranchAddress(branchInstruction), actual == BranchResult.TAKEN);
+    }
+
+    /**
+     * Predicts the result of a branch instruction and saves the looked up counter in the prediction handle
+     * instead of the SC register, so several branches can be in flight
+     *
+     * @param branchInstruction the branch instruction
+     * @param prediction        the handle which receives the table entry and the counter
+     * @return the predicted outcome of the branch instruction (taken or not taken)
+     */
+    @Override
+    public BranchResult predict(CompactBranchInstruction branchInstruction, Prediction prediction) {
+        long instructionAddress = getBranchAddress(branchInstruction);
+        int historySelector = select(type.getHistoryScope(), instructionAddress);
+        boolean historyFirstTouch = statistics != null && isHistoryFirstTouch(historySelector);
+        long entry = getCacheEntry(instructionAddress, historySelector);
+        boolean firstTouch = statistics != null && !PHT.isAllocated(entry);
+        int cacheBlock = PHT.read(entry);
+        if (statistics != null) statistics.recordPrediction(cacheBlock, firstTouch, historyFirstTouch);
+
+        prediction.set(branchInstruction.getInstructionAddress(), branchInstruction.getInstructionAddressSize(), entry,
+                historySelector, cacheBlock, SC.getLength());
+        return prediction.getResult();
+    }
+
+    /**
+     * Updates the counter and the branch history of a prediction handle without looking up the cache entry again
+     *
+     * @param prediction the handle which is filled by predict
+     * @param actual     the actual result of branch (Taken or Not)
+     */
+    @Override
+    public void update(Prediction prediction, BranchResult actual) {
+        retire(prediction, actual);
+
+        // update branch history
+        insertHistory(prediction.getHistorySelector(), actual == BranchResult.TAKEN);
+    }
+
+    /**
+     * Inserts the predicted outcome in the selected BHR and saves the previous BHR value in the prediction handle.
+     * Only the predictors with a global history implement SpeculativePredictor, so the drivers update the
+     * per address and per set histories when the branch retires.
+     *
+     * @param prediction the handle which is filled by predict
+     */
+    public void speculate(Prediction prediction) {
+        int historySelector = prediction.getHistorySelector();
+        prediction.setHistory(getHistory(historySelector));
+        insertHistory(historySelector, prediction.isTaken());
+    }
+
+    /**
+     * Restores the BHR value before a mispredicted branch and inserts the actual outcome
+     *
+     * @param prediction the handle of the mispredicted branch
+     * @param actual     the actual result of branch (Taken or Not)
+     */
+    public void repair(Prediction prediction, BranchResult actual) {
+        int historySelector = prediction.getHistorySelector();
+        if (BHR != null) BHR.load(prediction.getHistory());
+        else BHRBank.load(historySelector, prediction.getHistory());
+        insertHistory(historySelector, actual == BranchResult.TAKEN);
+    }
+
+    /**
+     * Updates the counter of a prediction handle without changing the BHR
+     *
+     * @param prediction the handle which is filled by predict
+     * @param actual     the actual result of branch (Taken or Not)
+     */
+    public void retire(Prediction prediction, BranchResult actual) {
+        boolean isTaken = actual == BranchResult.TAKEN;
+        if (statistics != null) statistics.recordUpdate(prediction.isTaken(), isTaken);
+
+        // count the current value of the entry, so the updates of the other branches in flight are kept
+        PHT.count(prediction.getEntry(), isTaken, countMode);
+    }
+
+    /**
+     * Predicts and updates a block of branches in a single loop
+     *
+     * @param instructionAddresses   the integer values of the branch addresses
+     * @param instructionAddressSize the number of bits of each branch address
+     * @param outcomes               the actual results of the branches (true if taken)
+     * @param offset                 the index of the first branch in the arrays
+     * @param length                 the number of branches
+     * @param predictions            the array which receives the predictions at the same indices (may be null)
+     * @return the number of correct predictions
+     */
+    @Override
+    public int predictAndUpdate(long[] instructionAddresses, int instructionAddressSize, boolean[] outcomes,
+                                int offset, int length, boolean[] predictions) {
+        // the branch address is the first branchInstructionSize bits of the address (see Bit.firstBits)
+        int addressShift = Math.max(0, instructionAddressSize - branchInstructionSize);
+        if (PHT instanceof DenseCounterTable && statistics == null)
+            return predictAndUpdateDense(instructionAddresses, addressShift, outcomes, offset, length, predictions);
+
+        PredictorStatistics statistics = this.statistics;
+        PredictorType.Scope historyScope = type.getHistoryScope();
+        int counterSize = SC.getLength();
+        int hits = 0;
+        int cacheBlock = 0;
+
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long instructionAddress = instructionAddresses[i] >>> addressShift;
+            boolean isTaken = outcomes[i];
+
+            // predict the branch based on the value of the MSB
+            int historySelector = select(historyScope, instructionAddress);
+            boolean historyFirstTouch = statistics != null && isHistoryFirstTouch(historySelector);
+            long entry = getCacheEntry(instructionAddress, historySelector);
+            boolean firstTouch = statistics != null && !PHT.isAllocated(entry);
+            cacheBlock = PHT.read(entry);
+            boolean prediction = (cacheBlock >>> (counterSize - 1)) != 0;
+            if (statistics != null) {
+                statistics.recordPrediction(cacheBlock, firstTouch, historyFirstTouch);
+                statistics.recordUpdate(prediction, isTaken);
+            }
+            if (predictions != null) predictions[i] = prediction;
+            if (prediction == isTaken) hits++;
+
+            // update saturating counter and add it to the cache
+            PHT.write(entry, CombinationalLogic.count(cacheBlock, counterSize, isTaken, countMode));
+
+            // update branch history
+            insertHistory(historySelector, isTaken);
+        }
+
+        // the SC register holds the last counter just like after a single predict and update
+        if (length > 0) SC.load(cacheBlock);
+        return hits;
+    }
+
+    /**
+     * The predictAndUpdate loop of the dense storage without statistics. The devices are used through their
+     * concrete classes, so the calls are bound directly whichever schemes share the JVM.
+     */
+    private int predictAndUpdateDense(long[] instructionAddresses, int addressShift, boolean[] outcomes,
+                                      int offset, int length, boolean[] predictions) {
+        DenseCounterTable table = (DenseCounterTable) PHT;
+        LongShiftRegister register = (LongShiftRegister) BHR; // null unless the history is global
+        DenseRegisterBank bank = (DenseRegisterBank) BHRBank; // null if the history is global
+        PredictorType.Scope historyScope = type.getHistoryScope();
+        byte[] transitions = CombinationalLogic.getTransitions(SC.getLength(), countMode);
+        int rows = (int) PHTSize; // the dense tables have an int number of entries
+        int counterShift = SC.getLength() - 1;
+        int hits = 0;
+        int cacheBlock = 0;
+
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long instructionAddress = instructionAddresses[i] >>> addressShift;
+            boolean isTaken = outcomes[i];
+
+            // predict the branch based on the value of the MSB
+            int historySelector = select(historyScope, instructionAddress);
+            int history = (int) (register != null ? register.getValue() : bank.getValue(historySelector));
+            int entry = select(type.getTableScope(), instructionAddress) * rows + history;
+            cacheBlock = table.read(entry);
+            boolean prediction = (cacheBlock >>> counterShift) != 0;
+            if (predictions != null) predictions[i] = prediction;
+            if (prediction == isTaken) hits++;
+
+            // update saturating counter with the transition table
+            table.write(entry, transitions[(cacheBlock << 1) | (isTaken ? 1 : 0)] & 0xFF);
+
+            // update branch history
+            Bit bit = isTaken ? Bit.ONE : Bit.ZERO;
+            if (register != null) register.insert(bit);
+            else bank.insert(historySelector, bit);
+        }
+
+        // the SC register holds the last counter just like after a single predict and update
+        if (length > 0) SC.load(cacheBlock);
+        return hits;
+    }
+
+    /**
+     * @param instructionAddress the integer value of the branch address
+     * @return the predicted outcome of the branch instruction (taken or not taken)
+     */
+    private BranchResult predict(long instructionAddress) {
+        // Get the associated block with the cache entry from the PHT
+        int historySelector = select(type.getHistoryScope(), instructionAddress);
+        boolean historyFirstTouch = statistics != null && isHistoryFirstTouch(historySelector);
+        long entry = getCacheEntry(instructionAddress, historySelector);
+        boolean firstTouch = statistics != null && !PHT.isAllocated(entry);
+        int cacheBlock = PHT.read(entry);
+        if (statistics != null) statistics.recordPrediction(cacheBlock, firstTouch, historyFirstTouch);
+
+        // load the block into the register
+        SC.load(cacheBlock);
+
+        // Return the predicted outcome of the branch instruction based on the value of the MSB
+        return (cacheBlock >>> (SC.getLength() - 1)) != 0 ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
+    }
+
+    /**
+     * @param instructionAddress the integer value of the branch address
+     * @param isTaken            the actual result of branch
+     */
+    private void update(long instructionAddress, boolean isTaken) {
+        // record the result of the prediction
+        if (statistics != null) statistics.recordUpdate((SC.getValue() >>> (SC.getLength() - 1)) != 0, isTaken);
+
+        // update saturating counter
+        int nValue = CombinationalLogic.count((int) SC.getValue(), SC.getLength(), isTaken, countMode);
+
+        // add updated value to the cache
+        int historySelector = select(type.getHistoryScope(), instructionAddress);
+        PHT.write(getCacheEntry(instructionAddress, historySelector), nValue);
+
+        // update branch history
+        insertHistory(historySelector, isTaken);
+    }
+
+    /**
+     * @param instructionAddress the integer value of the branch address
+     * @param historySelector    the index of the BHR of the branch
+     * @return concatenated value of the PHT selector and the BHR
+     */
+    private long getCacheEntry(long instructionAddress, int historySelector) {
+        return select(type.getTableScope(), instructionAddress) * PHTSize + getHistory(historySelector);
+    }
+
+    /**
+     * @param instructionAddress the bits of the branch address
+     * @return the integer value of the first branchInstructionSize bits of the address
+     */
+    private long getBranchAddress(Bit[] instructionAddress) {
+        return Bit.toLong(instructionAddress, Math.min(instructionAddress.length, branchInstructionSize));
+    }
+
+    /**
+     * @param branchInstruction the compact branch instruction
+     * @return the integer value of the first branchInstructionSize bits of the address
+     */
+    private long getBranchAddress(CompactBranchInstruction branchInstruction) {
+        return Bit.firstBits(branchInstruction.getInstructionAddress(),
+                branchInstruction.getInstructionAddressSize(), branchInstructionSize);
+    }
+
+    /**
+     * @param scope              the scope of the registers or the tables
+     * @param instructionAddress the integer value of the branch address
+     * @return the index of the register or the table of the branch
+     */
+    private int select(PredictorType.Scope scope, long instructionAddress) {
+        switch (scope) {
+            case PER_ADDRESS:
+                return (int) (instructionAddress & addressMask);
+            case PER_SET:
+                return CombinationalLogic.hash(instructionAddress, branchInstructionSize, KSize);
+            default:
+                return 0;
+        }
+    }
+
+    private int getSelectorSize(PredictorType.Scope scope) {
+        return scope == PredictorType.Scope.PER_SET ? KSize : branchInstructionSize;
+    }
+
+    private boolean uses(PredictorType.Scope scope) {
+        return type.getHistoryScope() == scope || type.getTableScope() == scope;
+    }
+
+    /**
+     * @param historySelector the index of the BHR
+     * @return true if the BHR of the bank is not initialized yet (the global BHR is always initialized)
+     */
+    private boolean isHistoryFirstTouch(int historySelector) {
+        return BHRBank != null && !BHRBank.isAllocated(historySelector);
+    }
+
+    private long getHistory(int historySelector) {
+        return BHR != null ? BHR.getValue() : BHRBank.getValue(historySelector);
+    }
+
+    private void insertHistory(int historySelector, boolean isTaken) {
+        Bit bit = isTaken ? Bit.ONE : Bit.ZERO;
+        if (BHR != null) BHR.insert(bit);
+        else BHRBank.insert(historySelector, bit);
+    }
+
+    public PredictorType getType() {
+        return type;
+    }
+
+    @Override
+    public void setStatisticsEnabled(boolean enabled) {
+        statistics = enabled ? new PredictorStatistics(SC.getLength()) : null;
+    }
+
+    @Override
+    public PredictorStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * save the counter mode, the branch history, the counters and the SC register
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state can not be written
+     */
+    @Override
+    public void save(DataOutput out) throws IOException {
+        out.writeByte(countMode.ordinal());
+        if (BHR != null) BHR.save(out);
+        else BHRBank.save(out);
+        PHT.save(out);
+        SC.save(out);
+    }
+
+    /**
+     * @param in the source of the state
+     * @throws IOException if the state can not be read or it is saved from a predictor with other parameters
+     */
+    @Override
+    public void restore(DataInput in) throws IOException {
+        if (in.readUnsignedByte() != countMode.ordinal())
+            throw new IOException("snapshot counter mode does not match the predictor");
+
+        if (BHR != null) BHR.restore(in);
+        else BHRBank.restore(in);
+        PHT.restore(in);
+        SC.restore(in);
+    }
+
+    @Override
+    public String monitor() {
+        return type + " predictor snapshot: \n" + (BHR != null ? BHR.monitor() : BHRBank.monitor())
+                + SC.monitor() + PHT.monitor();
+    }
+}
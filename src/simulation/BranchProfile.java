@@ -0,0 +1,67 @@
+package simulation;
+
+/**
+ * the profile of a single branch address which is tracked by the misprediction profiler. the counters start
+ * when the address enters the profiler, so they cover the executions since then. the misprediction count is an
+ * upper bound which may over count by at most the error.
+ */
+public final class BranchProfile {
+    private final long instructionAddress;
+    private final long mispredictions;
+    private final long error;
+    private final long executions;
+    private final long taken;
+
+    public BranchProfile(long instructionAddress, long mispredictions, long error, long executions, long taken) {
+        this.instructionAddress = instructionAddress;
+        this.mispredictions = mispredictions;
+        this.error = error;
+        this.executions = executions;
+        this.taken = taken;
+    }
+
+    public long getInstructionAddress() {
+        return instructionAddress;
+    }
+
+    /**
+     * @return the upper bound of the number of mispredictions of the branch in the whole trace
+     */
+    public long getMispredictions() {
+        return mispredictions;
+    }
+
+    /**
+     * @return the maximum over count of the mispredictions
+     */
+    public long getError() {
+        return error;
+    }
+
+    /**
+     * @return the number of executions since the branch is tracked
+     */
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return the ratio of correct predictions since the branch is tracked
+     */
+    public double getAccuracy() {
+        return executions == 0 ? 0 : 1 - (double) (mispredictions - error) / executions;
+    }
+
+    /**
+     * @return the ratio of taken executions since the branch is tracked
+     */
+    public double getTakenRate() {
+        return executions == 0 ? 0 : (double) taken / executions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("0x%x mispredictions=%d (error %d) executions=%d accuracy=%.5f taken=%.5f",
+                instructionAddress, mispredictions, error, executions, getAccuracy(), getTakenRate());
+    }
+}
@@ -0,0 +1,116 @@
+package simulation;
+
+import utils.Monitorable;
+
+/**
+ * the stitched accuracy of a chunked simulation. each chunk ran on a fresh predictor, so the result is an
+ * approximation of a sequential run. if the sequential run was done too, the error of the approximation is known.
+ */
+public class ChunkedResult implements Monitorable {
+    private final long[] chunkHits;
+    private final long[] chunkLengths;
+    private final long hits;
+    private final long recordCount;
+    private final long sequentialHits;
+
+    /**
+     * @param chunkHits      the number of correct predictions in each chunk
+     * @param chunkLengths   the number of counted records in each chunk
+     * @param sequentialHits the number of correct predictions of the sequential run (negative if it was not run)
+     */
+    public ChunkedResult(long[] chunkHits, long[] chunkLengths, long sequentialHits) {
+        if (chunkHits.length != chunkLengths.length) throw new IllegalArgumentException("each chunk must have a length");
+
+        this.chunkHits = chunkHits.clone();
+        this.chunkLengths = chunkLengths.clone();
+        this.sequentialHits = sequentialHits;
+
+        long hits = 0;
+        long recordCount = 0;
+        for (int i = 0; i < chunkHits.length; i++) {
+            hits += chunkHits[i];
+            recordCount += chunkLengths[i];
+        }
+        this.hits = hits;
+        this.recordCount = recordCount;
+    }
+
+    public int getChunkCount() {
+        return chunkHits.length;
+    }
+
+    public long getChunkHits(int chunk) {
+        return chunkHits[chunk];
+    }
+
+    public long getChunkLength(int chunk) {
+        return chunkLengths[chunk];
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the stitched ratio of correct predictions (zero for an empty trace)
+     */
+    public double getHitRate() {
+        return recordCount == 0 ? 0 : (double) hits / recordCount;
+    }
+
+    /**
+     * @return true if the sequential run was done
+     */
+    public boolean hasSequentialResult() {
+        return sequentialHits >= 0;
+    }
+
+    public long getSequentialHits() {
+        return sequentialHits;
+    }
+
+    /**
+     * @return the ratio of correct predictions of the sequential run
+     */
+    public double getSequentialHitRate() {
+        if (!hasSequentialResult()) throw new IllegalStateException("the sequential run was not done");
+        return recordCount == 0 ? 0 : (double) sequentialHits / recordCount;
+    }
+
+    /**
+     * @return the stitched hit rate minus the sequential hit rate
+     */
+    public double getError() {
+        return getHitRate() - getSequentialHitRate();
+    }
+
+    /**
+     * @return a table with the hits and the hit rate of each chunk
+     */
+    @Override
+    public String monitor() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("+-----------------------------------------------+\n");
+        sb.append(String.format("| %-8s | %-12s | %-10s | %-7s |\n", "Chunk", "Records", "Hits", "Hit rate"));
+        sb.append("|----------|--------------|------------|---------|\n");
+        for (int i = 0; i < chunkHits.length; i++) {
+            double rate = chunkLengths[i] == 0 ? 0 : (double) chunkHits[i] / chunkLengths[i];
+            sb.append(String.format("| %-8d | %-12d | %-10d | %-7.5f |\n", i, chunkLengths[i], chunkHits[i], rate));
+        }
+        sb.append("+-----------------------------------------------+\n");
+        sb.append(String.format("stitched hit rate: %.5f\n", getHitRate()));
+        if (hasSequentialResult()) {
+            sb.append(String.format("sequential hit rate: %.5f (error %+.5f)\n", getSequentialHitRate(), getError()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return monitor();
+    }
+}
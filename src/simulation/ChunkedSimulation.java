@@ -0,0 +1,121 @@
+package simulation;
+
+import predictors.BranchPredictor;
+import trace.BinaryTraceReader;
+import trace.TraceSource;
+import utils.BranchResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * approximates a sequential simulation of one long trace by splitting it in chunks which are simulated in parallel.
+ * each chunk runs on a fresh predictor which first replays the last records of the preceding chunk (the warm-up)
+ * without counting them, so the cold start error of the chunk is small. the counted records of the chunks do not
+ * overlap and cover the whole trace.
+ */
+public class ChunkedSimulation {
+    private final ForkJoinPool pool;
+    private final int chunks;
+    private final long warmupLength;
+
+    /**
+     * @param pool         the pool which runs the chunks
+     * @param chunks       the number of chunks
+     * @param warmupLength the number of records of the preceding chunk which warm up the predictor of a chunk
+     */
+    public ChunkedSimulation(ForkJoinPool pool, int chunks, long warmupLength) {
+        if (chunks < 1) throw new IllegalArgumentException("there must be at least one chunk");
+        if (warmupLength < 0) throw new IllegalArgumentException("invalid warm-up length");
+
+        this.pool = pool;
+        this.chunks = chunks;
+        this.warmupLength = warmupLength;
+    }
+
+    /**
+     * simulate the chunks of the trace
+     *
+     * @param trace      the trace
+     * @param predictors creates a fresh predictor for each chunk
+     * @param sequential if true, the whole trace is also simulated sequentially (in parallel with the chunks)
+     *                   to measure the error of the approximation
+     * @return the stitched result
+     * @throws IOException          if the trace can not be read
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public ChunkedResult run(BinaryTraceReader trace, Supplier<? extends BranchPredictor> predictors, boolean sequential)
+            throws IOException, InterruptedException {
+        long n = trace.getRecordCount();
+        long[] lengths = new long[chunks];
+
+        // the sequential run is the longest task, so it starts first
+        ForkJoinTask<Long> reference = sequential ? pool.submit(() -> replay(trace, 0, n, predictors.get())) : null;
+
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            long from = n * i / chunks;
+            long to = n * (i + 1) / chunks;
+            lengths[i] = to - from;
+            tasks.add(pool.submit(() -> {
+                BranchPredictor predictor = predictors.get();
+                replay(trace, Math.max(0, from - warmupLength), from, predictor); // step 1: warm up
+                return replay(trace, from, to, predictor); // step 2: count
+            }));
+        }
+
+        long[] hits = new long[chunks];
+        try {
+            for (int i = 0; i < chunks; i++) hits[i] = tasks.get(i).get();
+            return new ChunkedResult(hits, lengths, reference == null ? -1 : reference.get());
+        } catch (InterruptedException e) {
+            cancel(tasks, reference);
+            throw e;
+        } catch (ExecutionException e) {
+            cancel(tasks, reference);
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * cancel the tasks of a failed or interrupted run, so they do not keep the pool busy
+     */
+    private static void cancel(List<ForkJoinTask<Long>> tasks, ForkJoinTask<Long> reference) {
+        for (ForkJoinTask<Long> task : tasks) task.cancel(false);
+        if (reference != null) reference.cancel(false);
+    }
+
+    /**
+     * replay a range of the trace
+     *
+     * @return the number of correct predictions in the range
+     */
+    private static long replay(BinaryTraceReader trace, long from, long to, BranchPredictor predictor) {
+        TraceBatch batch = new TraceBatch(TraceSource.REPLAY_BLOCK_SIZE);
+        long[] hits = new long[1];
+
+        try {
+            trace.forEach(from, to, (instruction, actual) -> {
+                if (batch.add(instruction, actual == BranchResult.TAKEN)) {
+                    hits[0] += predictor.predictAndUpdate(batch.getInstructionAddresses(),
+                            batch.getInstructionAddressSize(), batch.getOutcomes(), 0, batch.getLength(), null);
+                    batch.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        hits[0] += predictor.predictAndUpdate(batch.getInstructionAddresses(),
+                batch.getInstructionAddressSize(), batch.getOutcomes(), 0, batch.getLength(), null);
+        return hits[0];
+    }
+}
@@ -0,0 +1,110 @@
+package simulation;
+
+import predictors.BranchPredictor;
+import trace.TraceSource;
+import utils.BranchResult;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * decodes a trace once and feeds every record to several predictors. each predictor runs on its own thread and
+ * receives the records in batches through a bounded lock-free ring which has a single producer (the decoder) and a
+ * single consumer (the predictor). the batches are shared between the predictors and recycled when all of them are
+ * done, so the memory usage is bounded by the queue capacity.
+ */
+public class ComparisonEngine {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private final List<BranchPredictor> predictors;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    /**
+     * @param predictors the predictors which are compared
+     */
+    public ComparisonEngine(List<? extends BranchPredictor> predictors) {
+        this(predictors, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param predictors    the predictors which are compared
+     * @param batchSize     the number of records of each batch
+     * @param queueCapacity the number of batches which each predictor can fall behind the decoder
+     */
+    public ComparisonEngine(List<? extends BranchPredictor> predictors, int batchSize, int queueCapacity) {
+        if (predictors.isEmpty()) throw new IllegalArgumentException("at least one predictor is needed");
+        if (batchSize < 1 || queueCapacity < 1)
+            throw new IllegalArgumentException("batch size and queue capacity must be positive");
+
+        this.predictors = new ArrayList<>(predictors);
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * replay the trace on all the predictors
+     *
+     * @param source the trace
+     * @return the number of correct predictions of each predictor
+     * @throws IOException          if the trace can not be read
+     * @throws InterruptedException if the calling thread is interrupted
+     * @throws RuntimeException     if any predictor fails
+     */
+    public ComparisonResult run(TraceSource source) throws IOException, InterruptedException {
+        int n = predictors.size();
+
+        // the decoder fills one batch while every queue may hold queueCapacity batches
+        int batches = queueCapacity + 1;
+        PredictorWorker[] workers = new PredictorWorker[n];
+        Thread[] threads = new Thread[n];
+        for (int i = 0; i < n; i++) workers[i] = new PredictorWorker(predictors.get(i), queueCapacity, batches);
+        PredictorWorker.allocate(workers, batches, batchSize);
+        for (int i = 0; i < n; i++) {
+            threads[i] = new Thread(workers[i], "predictor-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        long[] recordCount = new long[1];
+        TraceBatch[] current = new TraceBatch[1];
+        try {
+            current[0] = PredictorWorker.take(workers);
+            source.forEach((instruction, actual) -> {
+                recordCount[0]++;
+                if (current[0].add(instruction, actual == BranchResult.TAKEN)) {
+                    try {
+                        publish(current[0], workers);
+                        current[0] = PredictorWorker.take(workers);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("comparison is interrupted");
+                    }
+                }
+            });
+            if (current[0].getLength() > 0) publish(current[0], workers);
+        } finally {
+            // stop the workers even if the decoder fails or the calling thread is interrupted
+            PredictorWorker.stop(workers, threads);
+        }
+
+        String[] names = new String[n];
+        long[] hits = new long[n];
+        for (int i = 0; i < n; i++) {
+            if (workers[i].error != null)
+                throw new RuntimeException("predictor " + i + " failed", workers[i].error);
+
+            names[i] = predictors.get(i).getClass().getSimpleName();
+            hits[i] = workers[i].hits;
+        }
+        return new ComparisonResult(names, hits, recordCount[0]);
+    }
+
+    private static void publish(TraceBatch batch, PredictorWorker[] workers) throws InterruptedException {
+        batch.retain(workers.length);
+        for (PredictorWorker worker : workers) worker.queue.put(batch);
+    }
+}
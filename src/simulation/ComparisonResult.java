@@ -0,0 +1,71 @@
+package simulation;
+
+import utils.Monitorable;
+
+/**
+ * the number of correct predictions of each predictor over the same trace
+ */
+public class ComparisonResult implements Monitorable {
+    private final String[] names;
+    private final long[] hits;
+    private final long recordCount;
+
+    /**
+     * @param names       the name of each predictor
+     * @param hits        the number of correct predictions of each predictor
+     * @param recordCount the number of records of the trace
+     */
+    public ComparisonResult(String[] names, long[] hits, long recordCount) {
+        if (names.length != hits.length) throw new IllegalArgumentException("each predictor must have a name");
+
+        this.names = names.clone();
+        this.hits = hits.clone();
+        this.recordCount = recordCount;
+    }
+
+    public int getPredictorCount() {
+        return names.length;
+    }
+
+    public String getName(int predictor) {
+        return names[predictor];
+    }
+
+    public long getHits(int predictor) {
+        return hits[predictor];
+    }
+
+    /**
+     * @param predictor the index of the predictor
+     * @return the ratio of correct predictions (zero for an empty trace)
+     */
+    public double getHitRate(int predictor) {
+        return recordCount == 0 ? 0 : (double) hits[predictor] / recordCount;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return a table with the hits and the hit rate of each predictor
+     */
+    @Override
+    public String monitor() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("+-----------------------------------------------+\n");
+        sb.append(String.format("| %-16s | %-14s | %-9s |\n", "Predictor", "Hits", "Hit rate"));
+        sb.append("|------------------|----------------|-----------|\n");
+        for (int i = 0; i < names.length; i++) {
+            sb.append(String.format("| %-16s | %-14d | %-9.5f |\n", names[i], hits[i], getHitRate(i)));
+        }
+        sb.append("+-----------------------------------------------+\n");
+        sb.append("records: ").append(recordCount).append("\n");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return monitor();
+    }
+}
@@ -0,0 +1,156 @@
+package simulation;
+
+import predictors.BranchPredictor;
+import trace.TraceSource;
+import utils.BranchResult;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * replays a trace on a predictor in two stages. a decoder thread decodes (or decompresses) the trace into
+ * preallocated batches and the calling thread replays the batches on the predictor. the full batches go to the
+ * predictor through one single producer single consumer ring buffer and the empty batches come back through
+ * another one, so nothing is allocated after the start and the decoder waits when the predictor falls behind.
+ * the predictor is only used by the calling thread.
+ */
+public class DecoupledReplay {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    // marks the end of the trace in the ring buffer
+    private static final TraceBatch END = new TraceBatch(1);
+
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public DecoupledReplay() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param batchSize     the number of records of each batch
+     * @param queueCapacity the number of batches which the decoder can decode ahead of the predictor
+     */
+    public DecoupledReplay(int batchSize, int queueCapacity) {
+        if (batchSize < 1 || queueCapacity < 1)
+            throw new IllegalArgumentException("batch size and queue capacity must be positive");
+
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * replay the trace on the predictor
+     *
+     * @param source    the trace
+     * @param predictor the predictor
+     * @return the number of correct predictions
+     * @throws IOException          if the trace can not be read
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public long replay(TraceSource source, BranchPredictor predictor) throws IOException, InterruptedException {
+        // the end marker needs a slot in the full ring when every batch is in it
+        SpscRingBuffer<TraceBatch> full = new SpscRingBuffer<>(queueCapacity + 1);
+        SpscRingBuffer<TraceBatch> free = new SpscRingBuffer<>(queueCapacity);
+        for (int i = 0; i < queueCapacity; i++) free.offer(new TraceBatch(batchSize));
+
+        Decoder decoder = new Decoder(source, full, free);
+        Thread thread = new Thread(decoder, "trace-decoder");
+        thread.setDaemon(true);
+        thread.start();
+
+        long hits = 0;
+        try {
+            TraceBatch batch;
+            while ((batch = take(full, null)) != END) {
+                hits += predictor.predictAndUpdate(batch.getInstructionAddresses(),
+                        batch.getInstructionAddressSize(), batch.getOutcomes(), 0, batch.getLength(), null);
+                batch.clear();
+                free.offer(batch);
+            }
+        } finally {
+            // stop the decoder if the predictor fails
+            decoder.cancelled = true;
+            thread.join();
+        }
+
+        Throwable error = decoder.error;
+        if (error instanceof IOException) throw (IOException) error;
+        if (error instanceof RuntimeException) throw (RuntimeException) error;
+        if (error instanceof Error) throw (Error) error;
+        return hits;
+    }
+
+    /**
+     * wait for the next element of a ring buffer
+     *
+     * @param ring    the ring buffer
+     * @param decoder the decoder which is waiting (null for the predictor thread)
+     * @return the element
+     */
+    private static TraceBatch take(SpscRingBuffer<TraceBatch> ring, Decoder decoder) throws InterruptedException {
+        TraceBatch batch;
+        for (int i = 0; (batch = ring.poll()) == null; i++) {
+            idle(i, decoder);
+        }
+        return batch;
+    }
+
+    /**
+     * wait until a ring buffer has a free slot and add the element
+     */
+    private static void put(SpscRingBuffer<TraceBatch> ring, TraceBatch batch, Decoder decoder) throws InterruptedException {
+        for (int i = 0; !ring.offer(batch); i++) {
+            idle(i, decoder);
+        }
+    }
+
+    private static void idle(int iteration, Decoder decoder) throws InterruptedException {
+        if (decoder != null && decoder.cancelled) throw new InterruptedException("replay is cancelled");
+        SpscRingBuffer.idle(iteration);
+    }
+
+    /**
+     * decodes the trace into the batches of the free ring and publishes them in the full ring
+     */
+    private static final class Decoder implements Runnable {
+        private final TraceSource source;
+        private final SpscRingBuffer<TraceBatch> full;
+        private final SpscRingBuffer<TraceBatch> free;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        Decoder(TraceSource source, SpscRingBuffer<TraceBatch> full, SpscRingBuffer<TraceBatch> free) {
+            this.source = source;
+            this.full = full;
+            this.free = free;
+        }
+
+        @Override
+        public void run() {
+            try {
+                TraceBatch[] current = {take(free, this)};
+                source.forEach((instruction, actual) -> {
+                    if (current[0].add(instruction, actual == BranchResult.TAKEN)) {
+                        try {
+                            put(full, current[0], this);
+                            current[0] = take(free, this);
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException("decoder is interrupted");
+                        }
+                    }
+                });
+                if (current[0].getLength() > 0) put(full, current[0], this);
+            } catch (Throwable e) {
+                if (!cancelled) error = e;
+            } finally {
+                try {
+                    put(full, END, this);
+                } catch (InterruptedException e) {
+                    // the predictor thread is not waiting anymore
+                }
+            }
+        }
+    }
+}
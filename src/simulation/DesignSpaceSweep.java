@@ -0,0 +1,187 @@
+package simulation;
+
+import predictors.BranchPredictor;
+import predictors.PredictorConfig;
+import predictors.PredictorType;
+import trace.TraceSource;
+import utils.BranchResult;
+import utils.CountMode;
+import utils.StorageMode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * explores a grid of predictor configurations on one or more traces. every (trace, configuration) pair is an
+ * independent task on a work stealing pool. the tables of a predictor are allocated only after the task acquires
+ * its estimated heap usage from a memory budget, so large configurations wait for each other instead of running
+ * out of memory. a configuration which is larger than the whole budget runs alone.
+ */
+public class DesignSpaceSweep {
+    private static final int BUDGET_UNIT = 1 << 10; // the budget is counted in KB, so it fits in the semaphore
+
+    private final ForkJoinPool pool;
+    private final Semaphore budget;
+    private final int budgetPermits;
+
+    /**
+     * @param pool         the pool which runs the simulations
+     * @param memoryBudget the number of bytes which the predictors may use at the same time
+     */
+    public DesignSpaceSweep(ForkJoinPool pool, long memoryBudget) {
+        if (memoryBudget < BUDGET_UNIT) throw new IllegalArgumentException("memory budget is too small");
+
+        this.pool = pool;
+        this.budgetPermits = (int) Math.min(Integer.MAX_VALUE, memoryBudget / BUDGET_UNIT);
+        this.budget = new Semaphore(budgetPermits, true);
+    }
+
+    /**
+     * expand the parameter grid. the sizes which a predictor type does not use are not expanded and the
+     * invalid combinations (for example KSize bigger than branchInstructionSize) are skipped.
+     *
+     * @return the distinct valid configurations
+     */
+    public static List<PredictorConfig> grid(Collection<PredictorType> types, int[] BHRSizes, int[] SCSizes,
+                                             int[] branchInstructionSizes, int[] KSizes,
+                                             StorageMode storageMode, CountMode countMode) {
+        Set<PredictorConfig> configs = new LinkedHashSet<>();
+        for (PredictorType type : types) {
+            for (int BHRSize : BHRSizes) {
+                for (int SCSize : SCSizes) {
+                    for (int M : branchInstructionSizes) {
+                        for (int K : KSizes) {
+                            PredictorConfig config = new PredictorConfig(type, BHRSize, SCSize, M, K, storageMode, countMode);
+                            if (config.isValid()) configs.add(config);
+                        }
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(configs);
+    }
+
+    /**
+     * simulate every configuration on every trace. the traces are streamed by several tasks at once,
+     * so their forEach must be safe to call concurrently.
+     *
+     * @param traces  the traces by name
+     * @param configs the configurations
+     * @return the result of each (trace, configuration) pair
+     * @throws IOException          if any trace can not be read
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public List<SweepResult> run(Map<String, ? extends TraceSource> traces, List<PredictorConfig> configs)
+            throws IOException, InterruptedException {
+        // start the big configurations first, so they do not become the tail of the sweep
+        List<PredictorConfig> ordered = new ArrayList<>(configs);
+        ordered.sort(Comparator.comparingLong(PredictorConfig::estimateHeapBytes).reversed());
+
+        List<ForkJoinTask<SweepResult>> tasks = new ArrayList<>();
+        for (PredictorConfig config : ordered) {
+            for (Map.Entry<String, ? extends TraceSource> trace : traces.entrySet()) {
+                tasks.add(pool.submit(() -> simulate(trace.getKey(), trace.getValue(), config)));
+            }
+        }
+
+        List<SweepResult> results = new ArrayList<>(tasks.size());
+        try {
+            for (ForkJoinTask<SweepResult> task : tasks) results.add(task.get());
+        } catch (ExecutionException e) {
+            for (ForkJoinTask<SweepResult> task : tasks) task.cancel(false);
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        }
+        return results;
+    }
+
+    private SweepResult simulate(String name, TraceSource trace, PredictorConfig config) throws InterruptedException {
+        int permits = (int) Math.max(1, Math.min(budgetPermits, config.estimateHeapBytes() / BUDGET_UNIT));
+
+        // block as a managed blocker, so the pool may add a worker while this one waits for the budget
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            private boolean acquired;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                if (!acquired) budget.acquire(permits);
+                acquired = true;
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return acquired || (acquired = budget.tryAcquire(permits));
+            }
+        });
+
+        try {
+            BranchPredictor predictor = config.create();
+            TraceBatch batch = new TraceBatch(TraceSource.REPLAY_BLOCK_SIZE);
+            long[] hits = new long[1];
+            long[] records = new long[1];
+
+            trace.forEach((instruction, actual) -> {
+                records[0]++;
+                if (batch.add(instruction, actual == BranchResult.TAKEN)) {
+                    hits[0] += predictor.predictAndUpdate(batch.getInstructionAddresses(),
+                            batch.getInstructionAddressSize(), batch.getOutcomes(), 0, batch.getLength(), null);
+                    batch.clear();
+                }
+            });
+            hits[0] += predictor.predictAndUpdate(batch.getInstructionAddresses(),
+                    batch.getInstructionAddressSize(), batch.getOutcomes(), 0, batch.getLength(), null);
+
+            return new SweepResult(name, config, hits[0], records[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            budget.release(permits);
+        }
+    }
+
+    /**
+     * find the configurations which no other configuration beats in both accuracy and storage on the same trace
+     *
+     * @param results the results of a sweep
+     * @return the Pareto frontier of each trace ordered by storage bits
+     */
+    public static Map<String, List<SweepResult>> paretoFrontiers(Collection<SweepResult> results) {
+        Map<String, List<SweepResult>> byTrace = new LinkedHashMap<>();
+        for (SweepResult result : results) byTrace.computeIfAbsent(result.getTrace(), k -> new ArrayList<>()).add(result);
+
+        Map<String, List<SweepResult>> frontiers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<SweepResult>> entry : byTrace.entrySet()) {
+            frontiers.put(entry.getKey(), paretoFrontier(entry.getValue()));
+        }
+        return frontiers;
+    }
+
+    /**
+     * @param results the results of a single trace
+     * @return the Pareto frontier of accuracy and storage bits ordered by storage bits
+     */
+    public static List<SweepResult> paretoFrontier(Collection<SweepResult> results) {
+        List<SweepResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingLong(SweepResult::getStorageBits)
+                .thenComparing(Comparator.comparingDouble(SweepResult::getHitRate).reversed()));
+
+        // a configuration is on the frontier if it is more accurate than every cheaper one
+        List<SweepResult> frontier = new ArrayList<>();
+        double best = -1;
+        for (SweepResult result : sorted) {
+            if (result.getHitRate() > best) {
+                frontier.add(result);
+                best = result.getHitRate();
+            }
+        }
+        return frontier;
+    }
+}
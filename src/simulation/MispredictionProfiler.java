@@ -0,0 +1,267 @@
+package simulation;
+
+import predictors.BranchInstruction;
+import predictors.BranchPredictor;
+import predictors.CompactBranchInstruction;
+import utils.Bit;
+import utils.BranchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * wraps a predictor and finds the branch addresses which cause most of the mispredictions with the space saving
+ * algorithm. the profiler tracks a fixed number of addresses, so its memory does not depend on the trace:
+ * a mispredicted address which is not tracked replaces the tracked address with the least mispredictions and
+ * inherits its count as the error. every address whose true count is bigger than mispredictions / capacity
+ * is guaranteed to be tracked.
+ * <p>
+ * the tracked addresses are found with an open addressing hash table and the least mispredicted one is kept on
+ * top of a binary heap. everything is saved in primitive arrays.
+ */
+public class MispredictionProfiler implements BranchPredictor {
+    private static final long EMPTY = Long.MIN_VALUE; // hash table key of an empty slot (the address is never used)
+
+    private final BranchPredictor predictor;
+    private final int capacity;
+
+    // the tracked addresses by slot
+    private final long[] addresses;
+    private final long[] mispredictions;
+    private final long[] errors;
+    private final long[] executions;
+    private final long[] taken;
+    private int size;
+
+    // min heap of slots by the number of mispredictions and the heap position of each slot
+    private final int[] heap;
+    private final int[] heapPosition;
+
+    // open addressing hash table from the address to slot + 1 (zero is empty)
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    private boolean predicted; // the last prediction of the single branch path (true if taken)
+    private boolean[] predictions = new boolean[0]; // scratch array of the batch path
+
+    /**
+     * @param predictor the predictor which is profiled
+     * @param capacity  the number of branch addresses which are tracked
+     */
+    public MispredictionProfiler(BranchPredictor predictor, int capacity) {
+        if (capacity < 1 || capacity > (1 << 28)) throw new IllegalArgumentException("invalid profiler capacity");
+
+        this.predictor = predictor;
+        this.capacity = capacity;
+        this.addresses = new long[capacity];
+        this.mispredictions = new long[capacity];
+        this.errors = new long[capacity];
+        this.executions = new long[capacity];
+        this.taken = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapPosition = new int[capacity];
+
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.keys = new long[tableSize];
+        this.values = new int[tableSize];
+        this.mask = tableSize - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    @Override
+    public BranchResult predict(BranchInstruction instruction) {
+        return remember(predictor.predict(instruction));
+    }
+
+    @Override
+    public BranchResult predict(CompactBranchInstruction instruction) {
+        return remember(predictor.predict(instruction));
+    }
+
+    @Override
+    public void update(BranchInstruction instruction, BranchResult actual) {
+        record(Bit.toLong(instruction.getInstructionAddress()), predicted, actual == BranchResult.TAKEN);
+        predictor.update(instruction, actual);
+    }
+
+    @Override
+    public void update(CompactBranchInstruction instruction, BranchResult actual) {
+        record(instruction.getInstructionAddress(), predicted, actual == BranchResult.TAKEN);
+        predictor.update(instruction, actual);
+    }
+
+    @Override
+    public int predictAndUpdate(long[] instructionAddresses, int instructionAddressSize, boolean[] outcomes,
+                                int offset, int length, boolean[] predictions) {
+        // the predictions are needed for the profile, so use a scratch array if the caller does not want them
+        boolean[] result = predictions;
+        if (result == null) {
+            if (this.predictions.length < offset + length) this.predictions = new boolean[offset + length];
+            result = this.predictions;
+        }
+
+        int hits = predictor.predictAndUpdate(instructionAddresses, instructionAddressSize, outcomes, offset, length,
+                result);
+        for (int i = offset, end = offset + length; i < end; i++) record(instructionAddresses[i], result[i], outcomes[i]);
+        return hits;
+    }
+
+    private BranchResult remember(BranchResult prediction) {
+        predicted = prediction == BranchResult.TAKEN;
+        return prediction;
+    }
+
+    /**
+     * update the profile of an address with the result of a prediction
+     */
+    private void record(long address, boolean prediction, boolean isTaken) {
+        int slot = find(address);
+        if (slot < 0) {
+            // only mispredicted addresses enter the profiler
+            if (prediction == isTaken) return;
+            slot = insert(address);
+        } else if (prediction != isTaken) {
+            mispredictions[slot]++;
+            siftDown(heapPosition[slot]);
+        }
+
+        executions[slot]++;
+        if (isTaken) taken[slot]++;
+    }
+
+    /**
+     * start tracking a mispredicted address. if the profiler is full the least mispredicted address is replaced
+     *
+     * @return the slot of the address
+     */
+    private int insert(long address) {
+        int slot;
+        long count = 0;
+        if (size < capacity) {
+            slot = size++;
+            heap[slot] = slot;
+            heapPosition[slot] = slot;
+        } else {
+            slot = heap[0];
+            count = mispredictions[slot];
+            remove(addresses[slot]);
+        }
+
+        addresses[slot] = address;
+        mispredictions[slot] = count + 1;
+        errors[slot] = count;
+        executions[slot] = 0;
+        taken[slot] = 0;
+        put(address, slot);
+
+        // a new slot is at the end of the heap and a replaced slot is on top of it
+        if (count == 0) siftUp(heapPosition[slot]);
+        else siftDown(heapPosition[slot]);
+        return slot;
+    }
+
+    /**
+     * @param n the number of branches
+     * @return the profiles of the n most mispredicted branches from the most mispredicted one
+     */
+    public List<BranchProfile> getTopBranches(int n) {
+        Integer[] slots = new Integer[size];
+        for (int i = 0; i < size; i++) slots[i] = i;
+        Arrays.sort(slots, Comparator.comparingLong((Integer slot) -> mispredictions[slot]).reversed());
+
+        List<BranchProfile> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(n, size); i++) {
+            int slot = slots[i];
+            top.add(new BranchProfile(addresses[slot], mispredictions[slot], errors[slot], executions[slot], taken[slot]));
+        }
+        return top;
+    }
+
+    /**
+     * @return the predictor which is profiled
+     */
+    public BranchPredictor getPredictor() {
+        return predictor;
+    }
+
+    @Override
+    public String monitor() {
+        StringBuilder sb = new StringBuilder("top mispredicted branches: \n");
+        for (BranchProfile profile : getTopBranches(size)) sb.append(profile).append("\n");
+        return sb.toString();
+    }
+
+    // ---------------------------------------- min heap ----------------------------------------
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (mispredictions[heap[parent]] <= mispredictions[slot]) break;
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(slot, position);
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && mispredictions[heap[child + 1]] < mispredictions[heap[child]]) child++;
+            if (mispredictions[slot] <= mispredictions[heap[child]]) break;
+            move(heap[child], position);
+            position = child;
+        }
+        move(slot, position);
+    }
+
+    private void move(int slot, int position) {
+        heap[position] = slot;
+        heapPosition[slot] = position;
+    }
+
+    // ---------------------------------------- hash table ----------------------------------------
+
+    private static int hash(long address) {
+        long h = address * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(long address) {
+        for (int i = hash(address) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == address) return values[i] - 1;
+        }
+        return -1;
+    }
+
+    private void put(long address, int slot) {
+        int i = hash(address) & mask;
+        while (keys[i] != EMPTY) i = (i + 1) & mask;
+        keys[i] = address;
+        values[i] = slot + 1;
+    }
+
+    private void remove(long address) {
+        int i = hash(address) & mask;
+        while (keys[i] != address) i = (i + 1) & mask;
+
+        // shift the following entries back, so no probe sequence is broken
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+            if (movable) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+    }
+}
@@ -0,0 +1,84 @@
+package simulation;
+
+import utils.Monitorable;
+
+/**
+ * the merged result of an address partitioned simulation. the shards never share predictor state, so the merged
+ * hits are exactly the hits of a sequential run.
+ */
+public class PartitionedResult implements Monitorable {
+    private final long[] shardHits;
+    private final long[] shardLengths;
+    private final long hits;
+    private final long recordCount;
+
+    /**
+     * @param shardHits    the number of correct predictions of each shard
+     * @param shardLengths the number of records of each shard
+     */
+    public PartitionedResult(long[] shardHits, long[] shardLengths) {
+        if (shardHits.length != shardLengths.length) throw new IllegalArgumentException("each shard must have a length");
+
+        this.shardHits = shardHits.clone();
+        this.shardLengths = shardLengths.clone();
+
+        long hits = 0;
+        long recordCount = 0;
+        for (int i = 0; i < shardHits.length; i++) {
+            hits += shardHits[i];
+            recordCount += shardLengths[i];
+        }
+        this.hits = hits;
+        this.recordCount = recordCount;
+    }
+
+    public int getShardCount() {
+        return shardHits.length;
+    }
+
+    public long getShardHits(int shard) {
+        return shardHits[shard];
+    }
+
+    public long getShardLength(int shard) {
+        return shardLengths[shard];
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the ratio of correct predictions (zero for an empty trace)
+     */
+    public double getHitRate() {
+        return recordCount == 0 ? 0 : (double) hits / recordCount;
+    }
+
+    /**
+     * @return a table with the records and the hits of each shard
+     */
+    @Override
+    public String monitor() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("+-----------------------------------------------+\n");
+        sb.append(String.format("| %-8s | %-12s | %-10s | %-7s |\n", "Shard", "Records", "Hits", "Hit rate"));
+        sb.append("|----------|--------------|------------|---------|\n");
+        for (int i = 0; i < shardHits.length; i++) {
+            double rate = shardLengths[i] == 0 ? 0 : (double) shardHits[i] / shardLengths[i];
+            sb.append(String.format("| %-8d | %-12d | %-10d | %-7.5f |\n", i, shardLengths[i], shardHits[i], rate));
+        }
+        sb.append("+-----------------------------------------------+\n");
+        sb.append(String.format("hit rate: %.5f\n", getHitRate()));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return monitor();
+    }
+}
@@ -0,0 +1,133 @@
+package simulation;
+
+import devices.CombinationalLogic;
+import predictors.PredictorConfig;
+import predictors.PredictorType;
+import trace.TraceSource;
+import utils.Bit;
+import utils.BranchResult;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * an exact parallel simulation of a predictor whose history registers and pattern history tables are both
+ * selected by the branch address (PAp, PAs, SAp and SAs). the trace is decoded once and every record is sent to
+ * the shard of its selector bits: the set (hash) bits if any level is per set, otherwise the branch address bits.
+ * the set bits are a function of the address bits, so every register and table is used by a single shard and
+ * each shard can run on its own predictor. the merged hits are bit exact with a sequential run.
+ * every shard allocates its own predictor, so dense tables use shards times the memory of a single predictor.
+ */
+public class PartitionedSimulation {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private final PredictorConfig config;
+    private final int shards;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    /**
+     * @param config the predictor configuration
+     * @param shards the number of shards (threads)
+     */
+    public PartitionedSimulation(PredictorConfig config, int shards) {
+        this(config, shards, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param config        the predictor configuration
+     * @param shards        the number of shards (threads)
+     * @param batchSize     the number of records of each batch
+     * @param queueCapacity the number of batches which each shard can fall behind the decoder
+     */
+    public PartitionedSimulation(PredictorConfig config, int shards, int batchSize, int queueCapacity) {
+        if (!config.getType().isPartitionable())
+            throw new IllegalArgumentException(config.getType() + " has global state and can not be partitioned");
+        if (shards < 1) throw new IllegalArgumentException("there must be at least one shard");
+        if (batchSize < 1 || queueCapacity < 1)
+            throw new IllegalArgumentException("batch size and queue capacity must be positive");
+
+        this.config = config;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @param instructionAddress     the integer value of the branch address
+     * @param instructionAddressSize the number of bits of the branch address
+     * @return the shard of the branch
+     */
+    public int getShard(long instructionAddress, int instructionAddressSize) {
+        // the predictor selects by the first M bits of the address
+        int M = config.getBranchInstructionSize();
+        long key = Bit.firstBits(instructionAddress, instructionAddressSize, M) & ((1L << M) - 1);
+        PredictorType type = config.getType();
+        if (type.getHistoryScope() == PredictorType.Scope.PER_SET || type.getTableScope() == PredictorType.Scope.PER_SET)
+            key = CombinationalLogic.hash(key, M, config.getKSize());
+
+        // mix the key, so aligned addresses are spread over the shards
+        return (int) (((key * 0x9E3779B97F4A7C15L) >>> 32) % shards);
+    }
+
+    /**
+     * replay the trace on the shards
+     *
+     * @param source the trace
+     * @return the merged result
+     * @throws IOException          if the trace can not be read
+     * @throws InterruptedException if the calling thread is interrupted
+     * @throws RuntimeException     if any shard fails
+     */
+    public PartitionedResult run(TraceSource source) throws IOException, InterruptedException {
+        // the decoder fills one batch of each shard while every queue may hold queueCapacity batches
+        int batches = shards * (queueCapacity + 1);
+        PredictorWorker[] workers = new PredictorWorker[shards];
+        Thread[] threads = new Thread[shards];
+        TraceBatch[] current = new TraceBatch[shards];
+        for (int i = 0; i < shards; i++) workers[i] = new PredictorWorker(config.create(), queueCapacity, batches);
+        PredictorWorker.allocate(workers, batches, batchSize);
+        for (int i = 0; i < shards; i++) {
+            threads[i] = new Thread(workers[i], "shard-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+            current[i] = PredictorWorker.take(workers);
+        }
+
+        long[] lengths = new long[shards];
+        try {
+            source.forEach((instruction, actual) -> {
+                int shard = getShard(instruction.getInstructionAddress(), instruction.getInstructionAddressSize());
+                lengths[shard]++;
+                if (current[shard].add(instruction, actual == BranchResult.TAKEN)) {
+                    try {
+                        publish(current[shard], workers[shard]);
+                        current[shard] = PredictorWorker.take(workers);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("partitioned simulation is interrupted");
+                    }
+                }
+            });
+            for (int i = 0; i < shards; i++) {
+                if (current[i].getLength() > 0) publish(current[i], workers[i]);
+            }
+        } finally {
+            // stop the workers even if the decoder fails or the calling thread is interrupted
+            PredictorWorker.stop(workers, threads);
+        }
+
+        long[] hits = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            if (workers[i].error != null) throw new RuntimeException("shard " + i + " failed", workers[i].error);
+            hits[i] = workers[i].hits;
+        }
+        return new PartitionedResult(hits, lengths);
+    }
+
+    private static void publish(TraceBatch batch, PredictorWorker worker) throws InterruptedException {
+        batch.retain(1);
+        worker.queue.put(batch);
+    }
+}
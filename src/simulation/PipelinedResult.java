@@ -0,0 +1,52 @@
+package simulation;
+
+/**
+ * the accuracy of a predictor with delayed updates
+ */
+public final class PipelinedResult {
+    private final int window;
+    private final boolean speculative;
+    private final long hits;
+    private final long recordCount;
+
+    /**
+     * @param window      the maximum number of branches in flight
+     * @param speculative true if the global history was updated speculatively
+     * @param hits        the number of correct predictions
+     * @param recordCount the number of records of the trace
+     */
+    public PipelinedResult(int window, boolean speculative, long hits, long recordCount) {
+        this.window = window;
+        this.speculative = speculative;
+        this.hits = hits;
+        this.recordCount = recordCount;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public boolean isSpeculative() {
+        return speculative;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the ratio of correct predictions (zero for an empty trace)
+     */
+    public double getHitRate() {
+        return recordCount == 0 ? 0 : (double) hits / recordCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("window=%d speculative=%b hitRate=%.5f", window, speculative, getHitRate());
+    }
+}
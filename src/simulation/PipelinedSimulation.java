@@ -0,0 +1,100 @@
+package simulation;
+
+import predictors.BranchPredictor;
+import predictors.CompactBranchInstruction;
+import predictors.Prediction;
+import predictors.SpeculativePredictor;
+import trace.TraceSource;
+import utils.BranchResult;
+
+import java.io.IOException;
+
+/**
+ * replays a trace like a front end which predicts several branches before the first one retires.
+ * the predictions are issued while at most window branches are in flight and the counters are updated when the
+ * branches retire in order from a ring buffer of prediction handles, so a branch is predicted with counters which
+ * do not contain the outcomes of the previous window - 1 branches yet.
+ * a predictor with a global history (SpeculativePredictor) inserts the predicted outcome into its history at
+ * predict time. the wrong path after a mispredicted branch is not in the trace, so the branch is resolved and its
+ * history is repaired before the next branch of the trace is predicted. the other predictors update their history
+ * when the branch retires. a window of one branch is the same as an immediate update. the predictor must implement
+ * the prediction handle methods, because the default ones keep a single branch in flight.
+ */
+public class PipelinedSimulation {
+    private final int window;
+
+    /**
+     * @param window the maximum number of branches in flight
+     */
+    public PipelinedSimulation(int window) {
+        if (window < 1) throw new IllegalArgumentException("window must be positive");
+
+        this.window = window;
+    }
+
+    /**
+     * replay the trace on the predictor
+     *
+     * @param source    the trace
+     * @param predictor the predictor
+     * @return the accuracy of the predictor
+     * @throws IOException if the trace can not be read
+     */
+    public PipelinedResult run(TraceSource source, BranchPredictor predictor) throws IOException {
+        Pipeline pipeline = new Pipeline(predictor);
+        source.forEach((instruction, actual) -> pipeline.issue(instruction, actual));
+        pipeline.drain();
+        return new PipelinedResult(window, pipeline.speculative != null, pipeline.hits, pipeline.records);
+    }
+
+    /**
+     * the branches in flight of a single simulation
+     */
+    private final class Pipeline {
+        private final BranchPredictor predictor;
+        private final SpeculativePredictor speculative; // null if the history is updated at retire
+        private final Prediction[] inFlight = new Prediction[window];
+        private final BranchResult[] outcomes = new BranchResult[window];
+        private int head; // the index of the oldest branch
+        private int size;
+        private long hits;
+        private long records;
+
+        Pipeline(BranchPredictor predictor) {
+            this.predictor = predictor;
+            this.speculative = predictor instanceof SpeculativePredictor ? (SpeculativePredictor) predictor : null;
+            for (int i = 0; i < window; i++) inFlight[i] = new Prediction();
+        }
+
+        void issue(CompactBranchInstruction instruction, BranchResult actual) {
+            records++;
+            if (size == window) retire();
+
+            // step 1: predict the branch at the tail of the ring
+            int tail = (head + size) % window;
+            Prediction prediction = inFlight[tail];
+            outcomes[tail] = actual;
+            size++;
+            BranchResult predicted = predictor.predict(instruction, prediction);
+            if (speculative != null) speculative.speculate(prediction);
+
+            // step 2: a mispredicted branch is resolved before the correct path after it is fetched
+            if (predicted == actual) hits++;
+            else if (speculative != null) speculative.repair(prediction, actual);
+        }
+
+        /**
+         * retire the oldest branch
+         */
+        private void retire() {
+            if (speculative != null) speculative.retire(inFlight[head], outcomes[head]);
+            else predictor.update(inFlight[head], outcomes[head]);
+            head = (head + 1) % window;
+            size--;
+        }
+
+        void drain() {
+            while (size > 0) retire();
+        }
+    }
+}
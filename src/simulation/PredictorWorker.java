@@ -0,0 +1,119 @@
+package simulation;
+
+import predictors.BranchPredictor;
+
+/**
+ * replays the batches of its queue on a single predictor. the batches are released after they are replayed and
+ * the last consumer of a batch returns it through its own free ring. the decoder is the only producer of every
+ * queue and the only consumer of every free ring, so all the rings have a single producer and a single consumer.
+ */
+final class PredictorWorker implements Runnable {
+    // marks the end of the trace in the queues
+    static final TraceBatch END = new TraceBatch(1);
+
+    final BranchPredictor predictor;
+    final SpscRingBuffer<TraceBatch> queue;
+    private final SpscRingBuffer<TraceBatch> free;
+    long hits;
+    Throwable error;
+
+    /**
+     * @param predictor     the predictor
+     * @param queueCapacity the number of batches which the worker can fall behind the decoder
+     * @param batches       the number of batches of the run (every batch may come back through this worker)
+     */
+    PredictorWorker(BranchPredictor predictor, int queueCapacity, int batches) {
+        this.predictor = predictor;
+        this.queue = new SpscRingBuffer<>(queueCapacity);
+        this.free = new SpscRingBuffer<>(batches);
+    }
+
+    /**
+     * create the batches of a run. they are added to the free ring of the first worker, so this must be called
+     * before the worker threads are started.
+     *
+     * @param workers   the workers of the run
+     * @param batches   the number of batches
+     * @param batchSize the number of records of each batch
+     */
+    static void allocate(PredictorWorker[] workers, int batches, int batchSize) {
+        for (int i = 0; i < batches; i++) workers[0].free.offer(new TraceBatch(batchSize));
+    }
+
+    /**
+     * wait for a batch which is released by all its consumers. this must be called only by the decoder.
+     *
+     * @param workers the workers of the run
+     * @return an empty batch
+     * @throws InterruptedException if the thread is interrupted
+     */
+    static TraceBatch take(PredictorWorker[] workers) throws InterruptedException {
+        // check the interrupt once per batch like a blocking queue, even if a batch is free
+        if (Thread.interrupted()) throw new InterruptedException();
+
+        for (int i = 0; ; i++) {
+            for (PredictorWorker worker : workers) {
+                TraceBatch batch = worker.free.poll();
+                if (batch != null) return batch;
+            }
+            SpscRingBuffer.idle(i);
+        }
+    }
+
+    /**
+     * send END to every worker and wait for the threads to finish. the calling thread is not interruptible here, so an
+     * interrupted or failed run never leaves a worker waiting on its queue. the interrupt status of the calling thread
+     * is restored at the end.
+     *
+     * @param workers the workers which are stopped
+     * @param threads the threads which run the workers
+     */
+    static void stop(PredictorWorker[] workers, Thread[] threads) {
+        boolean interrupted = Thread.interrupted();
+        for (PredictorWorker worker : workers) {
+            for (int i = 0; !worker.queue.offer(END); i++) {
+                try {
+                    SpscRingBuffer.idle(i);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    @Override
+    public void run() {
+        try {
+            TraceBatch batch;
+            while ((batch = queue.take()) != END) {
+                // a failed predictor keeps draining its queue, so the decoder is never blocked
+                if (error == null) {
+                    try {
+                        hits += predictor.predictAndUpdate(batch.getInstructionAddresses(),
+                                batch.getInstructionAddressSize(), batch.getOutcomes(), 0, batch.getLength(), null);
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                }
+
+                // the free ring can hold every batch of the run, so the offer never fails
+                if (batch.release()) {
+                    batch.clear();
+                    free.offer(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            error = e;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package simulation;
+
+/**
+ * the accuracy which is estimated by a sampled simulation. every complete measured interval is a sample and the
+ * confidence interval of the accuracy is computed from the variance of the samples.
+ */
+public final class SampledResult {
+    /**
+     * the z value of a 95% confidence interval
+     */
+    public static final double Z_95 = 1.959964;
+
+    private final long samples;
+    private final long measuredBranches;
+    private final long hits;
+    private final double meanAccuracy;
+    private final double variance;
+    private final long recordCount;
+
+    /**
+     * @param samples          the number of complete measured intervals
+     * @param measuredBranches the number of branches in the measured intervals
+     * @param hits             the number of correct predictions in the measured intervals
+     * @param meanAccuracy     the mean accuracy of the intervals
+     * @param variance         the sample variance of the accuracy of the intervals
+     * @param recordCount      the number of records of the trace
+     */
+    public SampledResult(long samples, long measuredBranches, long hits, double meanAccuracy, double variance,
+                         long recordCount) {
+        this.samples = samples;
+        this.measuredBranches = measuredBranches;
+        this.hits = hits;
+        this.meanAccuracy = meanAccuracy;
+        this.variance = variance;
+        this.recordCount = recordCount;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getMeasuredBranches() {
+        return measuredBranches;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the estimated accuracy of the whole trace (the mean accuracy of the intervals)
+     */
+    public double getAccuracy() {
+        return meanAccuracy;
+    }
+
+    /**
+     * @return the sample standard deviation of the accuracy of the intervals
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * @param z the z value of the confidence level (for example Z_95)
+     * @return the half width of the confidence interval of the accuracy (infinite for less than two samples)
+     */
+    public double getConfidenceHalfWidth(double z) {
+        if (samples < 2) return Double.POSITIVE_INFINITY;
+        return z * getStandardDeviation() / Math.sqrt(samples);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("accuracy %.5f +- %.5f (95%%, %d samples, %d of %d branches measured)",
+                getAccuracy(), getConfidenceHalfWidth(Z_95), samples, measuredBranches, recordCount);
+    }
+}
@@ -0,0 +1,158 @@
+package simulation;
+
+import predictors.BranchPredictor;
+import predictors.CompactBranchInstruction;
+import trace.BinaryTraceReader;
+import trace.TraceConsumer;
+import trace.TraceSource;
+import utils.BranchResult;
+
+import java.io.IOException;
+
+/**
+ * estimates the accuracy of a predictor on a long trace by simulating only a part of it. the trace is split in
+ * periods and each period has three intervals:
+ * fast forward: the records are skipped (a binary trace is not even decoded),
+ * warming: the records update the predictor but they are not counted,
+ * measured: the records update the predictor and the correct predictions are counted.
+ * every complete measured interval is a sample of the accuracy. an incomplete measured interval at the end of
+ * the trace is not counted.
+ */
+public class SampledSimulation {
+    private final long fastForwardLength;
+    private final long warmingLength;
+    private final long measuredLength;
+
+    /**
+     * @param fastForwardLength the number of skipped records in each period
+     * @param warmingLength     the number of records which only update the predictor in each period
+     * @param measuredLength    the number of measured records in each period
+     */
+    public SampledSimulation(long fastForwardLength, long warmingLength, long measuredLength) {
+        if (fastForwardLength < 0 || warmingLength < 0 || measuredLength < 1)
+            throw new IllegalArgumentException("invalid interval length");
+
+        this.fastForwardLength = fastForwardLength;
+        this.warmingLength = warmingLength;
+        this.measuredLength = measuredLength;
+    }
+
+    /**
+     * simulate the samples of the trace
+     *
+     * @param source    the trace
+     * @param predictor the predictor
+     * @return the estimated accuracy
+     * @throws IOException if the trace can not be read
+     */
+    public SampledResult run(TraceSource source, BranchPredictor predictor) throws IOException {
+        Sampler sampler = new Sampler(predictor);
+
+        if (source instanceof BinaryTraceReader) {
+            // a binary trace is random access, so the fast forward intervals are not read at all
+            BinaryTraceReader reader = (BinaryTraceReader) source;
+            long n = reader.getRecordCount();
+            long period = fastForwardLength + warmingLength + measuredLength;
+            for (long start = 0; start < n; start += period) {
+                sampler.skip(Math.min(fastForwardLength, n - start));
+                long from = start + fastForwardLength;
+                long to = Math.min(start + period, n);
+                if (from < to) reader.forEach(from, to, sampler);
+            }
+        } else {
+            source.forEach(sampler);
+        }
+
+        return sampler.finish();
+    }
+
+    /**
+     * the state of a single sampled simulation
+     */
+    private final class Sampler implements TraceConsumer {
+        private final BranchPredictor predictor;
+        private final TraceBatch batch = new TraceBatch(TraceSource.REPLAY_BLOCK_SIZE);
+        private final long period = fastForwardLength + warmingLength + measuredLength;
+        private long position; // the position of the next record in the period
+        private long records;
+        private boolean batchMeasured; // true if the records of the batch are in a measured interval
+
+        // the current measured interval
+        private long intervalHits;
+        private long intervalLength;
+
+        // the samples (the mean and variance are accumulated with Welford's method)
+        private long samples;
+        private double mean;
+        private double m2;
+        private long hits;
+        private long measuredBranches;
+
+        Sampler(BranchPredictor predictor) {
+            this.predictor = predictor;
+        }
+
+        @Override
+        public void accept(CompactBranchInstruction instruction, BranchResult actual) {
+            records++;
+            if (position >= fastForwardLength) {
+                boolean measured = position >= fastForwardLength + warmingLength;
+                if (measured != batchMeasured) flush();
+                batchMeasured = measured;
+                if (batch.add(instruction, actual == BranchResult.TAKEN)) flush();
+            }
+            advance(1);
+        }
+
+        /**
+         * skip records without reading them
+         */
+        void skip(long count) {
+            records += count;
+            advance(count);
+        }
+
+        private void advance(long count) {
+            position += count;
+            if (position == period) {
+                flush();
+                endInterval();
+                position = 0;
+            }
+        }
+
+        private void flush() {
+            int length = batch.getLength();
+            if (length == 0) return;
+
+            int batchHits = predictor.predictAndUpdate(batch.getInstructionAddresses(),
+                    batch.getInstructionAddressSize(), batch.getOutcomes(), 0, length, null);
+            if (batchMeasured) {
+                intervalHits += batchHits;
+                intervalLength += length;
+            }
+            batch.clear();
+        }
+
+        private void endInterval() {
+            if (intervalLength == measuredLength) {
+                double accuracy = (double) intervalHits / intervalLength;
+                samples++;
+                double delta = accuracy - mean;
+                mean += delta / samples;
+                m2 += delta * (accuracy - mean);
+                hits += intervalHits;
+                measuredBranches += intervalLength;
+            }
+            intervalHits = 0;
+            intervalLength = 0;
+        }
+
+        SampledResult finish() {
+            // the warming records of an incomplete period still update the predictor
+            flush();
+            double variance = samples > 1 ? m2 / (samples - 1) : 0;
+            return new SampledResult(samples, measuredBranches, hits, mean, variance, records);
+        }
+    }
+}
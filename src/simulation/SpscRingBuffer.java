@@ -0,0 +1,126 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * a bounded lock-free queue for exactly one producer thread and one consumer thread. the producer publishes an
+ * element with an ordered store of the tail and the consumer frees a slot with an ordered store of the head, so
+ * neither side takes a lock or allocates. each side caches the last index of the other side which it has seen and
+ * reads the shared index again only when the cached one says the buffer is full (or empty). a thread which waits
+ * for the other side spins for a while and then parks for short periods.
+ *
+ * @param <T> the type of the elements
+ */
+public final class SpscRingBuffer<T> {
+    // the number of busy spins before a waiting thread parks
+    private static final int SPINS = 1 << 10;
+    private static final long PARK_NANOS = 10_000;
+
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // the index of the next element which is read
+    private final AtomicLong tail = new AtomicLong(); // the index of the next element which is written
+    private long cachedHead; // read and written only by the producer
+    private long cachedTail; // read and written only by the consumer
+
+    /**
+     * @param capacity the maximum number of elements (rounded up to a power of two)
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("invalid capacity");
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * add an element. this must be called only by the producer thread.
+     *
+     * @param element the element (not null)
+     * @return false if the buffer is full
+     */
+    public boolean offer(T element) {
+        if (element == null) throw new NullPointerException("element is null");
+
+        long t = tail.get();
+        if (t - cachedHead == buffer.length) {
+            cachedHead = head.get();
+            if (t - cachedHead == buffer.length) return false;
+        }
+        buffer[(int) t & mask] = element;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * remove the oldest element. this must be called only by the consumer thread.
+     *
+     * @return the element or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long h = head.get();
+        if (h == cachedTail) {
+            cachedTail = tail.get();
+            if (h == cachedTail) return null;
+        }
+        int index = (int) h & mask;
+        T element = (T) buffer[index];
+        buffer[index] = null;
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * add an element and wait while the buffer is full. this must be called only by the producer thread.
+     *
+     * @param element the element (not null)
+     * @throws InterruptedException if the thread is interrupted while it waits
+     */
+    public void put(T element) throws InterruptedException {
+        for (int i = 0; !offer(element); i++) {
+            idle(i);
+        }
+    }
+
+    /**
+     * remove the oldest element and wait while the buffer is empty. this must be called only by the consumer thread.
+     *
+     * @return the element
+     * @throws InterruptedException if the thread is interrupted while it waits
+     */
+    public T take() throws InterruptedException {
+        T element;
+        for (int i = 0; (element = poll()) == null; i++) {
+            idle(i);
+        }
+        return element;
+    }
+
+    /**
+     * wait for the other side of a ring buffer
+     *
+     * @param iteration the number of the previous waits for the same element
+     * @throws InterruptedException if the thread is interrupted
+     */
+    static void idle(int iteration) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+
+        if (iteration < SPINS) Thread.onSpinWait();
+        else LockSupport.parkNanos(PARK_NANOS);
+    }
+
+    /**
+     * @return the number of elements (an estimate while the other thread is running)
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int getCapacity() {
+        return buffer.length;
+    }
+}
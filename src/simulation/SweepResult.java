@@ -0,0 +1,55 @@
+package simulation;
+
+import predictors.PredictorConfig;
+
+/**
+ * the accuracy of a predictor configuration on a trace
+ */
+public final class SweepResult {
+    private final String trace;
+    private final PredictorConfig config;
+    private final long hits;
+    private final long recordCount;
+
+    public SweepResult(String trace, PredictorConfig config, long hits, long recordCount) {
+        this.trace = trace;
+        this.config = config;
+        this.hits = hits;
+        this.recordCount = recordCount;
+    }
+
+    public String getTrace() {
+        return trace;
+    }
+
+    public PredictorConfig getConfig() {
+        return config;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the ratio of correct predictions (zero for an empty trace)
+     */
+    public double getHitRate() {
+        return recordCount == 0 ? 0 : (double) hits / recordCount;
+    }
+
+    /**
+     * @return the hardware storage cost of the configuration
+     */
+    public long getStorageBits() {
+        return config.getStorageBits();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s bits=%d hitRate=%.5f", trace, config, getStorageBits(), getHitRate());
+    }
+}
@@ -0,0 +1,100 @@
+package simulation;
+
+import predictors.CompactBranchInstruction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * a block of trace records in primitive arrays. a batch is filled by a single producer and is only read after
+ * it is published, so several consumers can share it. every consumer releases the batch when it is done and
+ * the last one may recycle it. all the addresses of a batch have the same size like the records of a trace.
+ */
+public final class TraceBatch {
+    private final long[] instructionAddresses;
+    private final boolean[] outcomes;
+    private final AtomicInteger pending = new AtomicInteger(); // number of consumers which still read the batch
+    private int instructionAddressSize; // the number of bits of the addresses (set by the first record)
+    private int length;
+
+    /**
+     * @param capacity the maximum number of records of the batch
+     */
+    public TraceBatch(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("batch capacity must be positive");
+
+        this.instructionAddresses = new long[capacity];
+        this.outcomes = new boolean[capacity];
+    }
+
+    /**
+     * append a record to the batch
+     *
+     * @param instruction the branch instruction of the record
+     * @param taken       the actual result of the branch
+     * @return true if the batch is full after adding the record
+     * @throws IllegalArgumentException if the address size is not the address size of the other records
+     */
+    public boolean add(CompactBranchInstruction instruction, boolean taken) {
+        return add(instruction.getInstructionAddress(), instruction.getInstructionAddressSize(), taken);
+    }
+
+    /**
+     * append a record to the batch
+     *
+     * @param instructionAddress     the integer value of the branch address
+     * @param instructionAddressSize the number of bits of the branch address
+     * @param taken                  the actual result of the branch
+     * @return true if the batch is full after adding the record
+     * @throws IllegalArgumentException if the address size is not the address size of the other records
+     */
+    public boolean add(long instructionAddress, int instructionAddressSize, boolean taken) {
+        if (length == 0) this.instructionAddressSize = instructionAddressSize;
+        else if (instructionAddressSize != this.instructionAddressSize)
+            throw new IllegalArgumentException("the addresses of a batch must have the same size");
+
+        instructionAddresses[length] = instructionAddress;
+        outcomes[length] = taken;
+        return ++length == instructionAddresses.length;
+    }
+
+    /**
+     * remove all the records of the batch
+     */
+    public void clear() {
+        length = 0;
+    }
+
+    /**
+     * @param consumers the number of consumers which must release the batch before it can be reused
+     */
+    void retain(int consumers) {
+        pending.set(consumers);
+    }
+
+    /**
+     * @return true if the caller is the last consumer of the batch
+     */
+    boolean release() {
+        return pending.decrementAndGet() == 0;
+    }
+
+    public long[] getInstructionAddresses() {
+        return instructionAddresses;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    public boolean[] getOutcomes() {
+        return outcomes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getCapacity() {
+        return instructionAddresses.length;
+    }
+}
@@ -0,0 +1,39 @@
+package trace;
+
+/*
+ * our fixed width binary trace format
+ * ------------------------------------------------------
+ * LAYOUT (little endian):
+ * header (32 bytes):
+ *   int   magic ("BPTR")
+ *   short version
+ *   byte  opcode size in bits
+ *   byte  instruction address size in bits
+ *   byte  jump address size in bits
+ *   3 bytes reserved (zero)
+ *   long  number of records (written when the writer is closed)
+ *   12 bytes reserved (zero)
+ *
+ * record (24 bytes):
+ *   long instruction address
+ *   long jump address
+ *   int  opcode
+ *   int  flags (bit 0 is set if the branch is taken)
+ * -------------------------------------------------------
+ */
+
+import java.nio.ByteOrder;
+
+final class BinaryTraceFormat {
+    static final int MAGIC = 0x52545042; // "BPTR" in little endian
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 24;
+    static final int RECORD_COUNT_OFFSET = 12;
+    static final int TAKEN_FLAG = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private BinaryTraceFormat() {
+        // make the constructor private to avoid instantiating.
+    }
+}
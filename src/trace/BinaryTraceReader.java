@@ -0,0 +1,125 @@
+package trace;
+
+import predictors.CompactBranchInstruction;
+import utils.BranchResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static trace.BinaryTraceFormat.*;
+
+/**
+ * reads a trace in the fixed width binary trace format. see BinaryTraceFormat for the layout.
+ * the file is memory mapped in windows, so traces bigger than 2GB can be streamed. the records are decoded
+ * into a single reused instruction, so no object is allocated per record.
+ */
+public class BinaryTraceReader implements TraceSource, Closeable {
+    // the number of records which are mapped at once (must keep the window below 2GB)
+    private static final long WINDOW_RECORDS = (1L << 30) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final int opcodeSize;
+    private final int instructionAddressSize;
+    private final int jumpAddressSize;
+    private final long recordCount;
+
+    /**
+     * open the trace and read its header
+     *
+     * @param path the trace file
+     * @throws IOException if the file can not be read or it is not a binary trace
+     */
+    public BinaryTraceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IOException("trace header is truncated");
+            }
+
+            if (header.getInt(0) != MAGIC) throw new IOException("file is not a binary branch trace");
+            if (header.getShort(4) != VERSION) throw new IOException("unsupported binary trace version");
+
+            this.opcodeSize = header.get(6);
+            this.instructionAddressSize = header.get(7);
+            this.jumpAddressSize = header.get(8);
+
+            // the record count is zero if the writer is not closed properly, so use the file size instead
+            long recordsInFile = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            long recordsInHeader = header.getLong(RECORD_COUNT_OFFSET);
+            this.recordCount = recordsInHeader > 0 ? Math.min(recordsInHeader, recordsInFile) : recordsInFile;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void forEach(TraceConsumer consumer) throws IOException {
+        forEach(0, recordCount, consumer);
+    }
+
+    /**
+     * stream a range of records to the consumer
+     *
+     * @param from     the index of the first record (inclusive)
+     * @param to       the index of the last record (exclusive)
+     * @param consumer the consumer of the records
+     * @throws IOException if the trace can not be read
+     */
+    public void forEach(long from, long to, TraceConsumer consumer) throws IOException {
+        if (from < 0 || to > recordCount || from > to)
+            throw new IndexOutOfBoundsException("invalid record range");
+
+        CompactBranchInstruction instruction = newInstruction();
+        for (long window = from; window < to; window += WINDOW_RECORDS) {
+            long records = Math.min(WINDOW_RECORDS, to - window);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + window * RECORD_SIZE, records * RECORD_SIZE);
+            buffer.order(ORDER);
+
+            int end = (int) (records * RECORD_SIZE);
+            for (int position = 0; position < end; position += RECORD_SIZE) {
+                instruction.set(buffer.getInt(position + 16), buffer.getLong(position), buffer.getLong(position + 8));
+                boolean taken = (buffer.getInt(position + 20) & TAKEN_FLAG) != 0;
+                consumer.accept(instruction, taken ? BranchResult.TAKEN : BranchResult.NOT_TAKEN);
+            }
+        }
+    }
+
+    /**
+     * @return a new instruction with the field sizes of this trace
+     */
+    public CompactBranchInstruction newInstruction() {
+        return new CompactBranchInstruction(opcodeSize, instructionAddressSize, jumpAddressSize);
+    }
+
+    /**
+     * @return the number of records of the trace
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getOpcodeSize() {
+        return opcodeSize;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    public int getJumpAddressSize() {
+        return jumpAddressSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
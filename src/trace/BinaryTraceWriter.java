@@ -0,0 +1,145 @@
+package trace;
+
+import predictors.BranchInstruction;
+import predictors.CompactBranchInstruction;
+import utils.BranchResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static trace.BinaryTraceFormat.*;
+
+/**
+ * writes branch records in the fixed width binary trace format. see BinaryTraceFormat for the layout.
+ * the records are buffered and the number of records is written in the header when the writer is closed.
+ */
+public class BinaryTraceWriter implements TraceConsumer, Closeable {
+    private static final int BUFFER_SIZE = RECORD_SIZE * 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int opcodeSize;
+    private final int instructionAddressSize;
+    private final int jumpAddressSize;
+    private long recordCount;
+
+    /**
+     * create (or truncate) the trace file and write its header
+     *
+     * @param path                   the trace file
+     * @param opcodeSize             the number of bits of the opcodes
+     * @param instructionAddressSize the number of bits of the instruction addresses
+     * @param jumpAddressSize        the number of bits of the jump addresses
+     * @throws IOException if the file can not be written
+     */
+    public BinaryTraceWriter(Path path, int opcodeSize, int instructionAddressSize, int jumpAddressSize) throws IOException {
+        this.opcodeSize = opcodeSize;
+        this.instructionAddressSize = instructionAddressSize;
+        this.jumpAddressSize = jumpAddressSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+
+        // write the header with an empty record count
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.put((byte) opcodeSize);
+        buffer.put((byte) instructionAddressSize);
+        buffer.put((byte) jumpAddressSize);
+        while (buffer.position() < HEADER_SIZE) buffer.put((byte) 0);
+    }
+
+    /**
+     * append a record to the trace
+     *
+     * @param instruction the branch instruction
+     * @param actual      the actual result of the branch
+     * @throws IOException if the buffer can not be flushed
+     */
+    public void write(CompactBranchInstruction instruction, BranchResult actual) throws IOException {
+        write(instruction.getInstructionAddress(), instruction.getJumpAddress(), instruction.getOpcode(),
+                actual == BranchResult.TAKEN);
+    }
+
+    /**
+     * append a record to the trace
+     *
+     * @param instruction the branch instruction
+     * @param actual      the actual result of the branch
+     * @throws IOException if the buffer can not be flushed
+     */
+    public void write(BranchInstruction instruction, BranchResult actual) throws IOException {
+        write(CompactBranchInstruction.of(instruction), actual);
+    }
+
+    /**
+     * append a record to the trace
+     *
+     * @param instructionAddress the address of the branch instruction
+     * @param jumpAddress        the target address of the branch
+     * @param opcode             the opcode of the branch instruction
+     * @param taken              the actual result of the branch
+     * @throws IOException if the buffer can not be flushed
+     */
+    public void write(long instructionAddress, long jumpAddress, int opcode, boolean taken) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) flush();
+
+        buffer.putLong(instructionAddress);
+        buffer.putLong(jumpAddress);
+        buffer.putInt(opcode);
+        buffer.putInt(taken ? TAKEN_FLAG : 0);
+        recordCount++;
+    }
+
+    @Override
+    public void accept(CompactBranchInstruction instruction, BranchResult actual) throws IOException {
+        write(instruction, actual);
+    }
+
+    /**
+     * @return the number of records which are written
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getOpcodeSize() {
+        return opcodeSize;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    public int getJumpAddressSize() {
+        return jumpAddressSize;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * flush the buffered records and write the record count in the header
+     *
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+
+        try {
+            flush();
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ORDER).putLong(0, recordCount);
+            channel.write(count, RECORD_COUNT_OFFSET);
+        } finally {
+            channel.close();
+        }
+    }
+}
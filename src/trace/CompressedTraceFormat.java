@@ -0,0 +1,110 @@
+package trace;
+
+/*
+ * our compressed binary trace format
+ * ------------------------------------------------------
+ * LAYOUT (little endian):
+ * header (32 bytes):
+ *   int   magic ("BPTZ")
+ *   short version
+ *   byte  opcode size in bits
+ *   byte  instruction address size in bits
+ *   byte  jump address size in bits
+ *   3 bytes reserved (zero)
+ *   long  number of records (written when the writer is closed)
+ *   12 bytes reserved (zero)
+ *
+ * the header is followed by blocks of at most BLOCK_RECORDS records. every block is independent, the
+ * dictionary and the previous address are reset at the start of each block.
+ *
+ * block:
+ *   varint number of records (n). a zero marks the end of the trace
+ *   address section, one code byte per record:
+ *     code < DICTIONARY_SIZE: the record is the dictionary entry number "code"
+ *     code = MISS: zigzag varint (address - previous address), zigzag varint (target - address), varint opcode
+ *   outcome section:
+ *     byte   the outcome of the first record (1 if taken)
+ *     varint the length of each run of the same outcome, the outcomes alternate between runs
+ *
+ * the dictionary holds the last DICTIONARY_SIZE distinct (address, target, opcode) tuples in most recently
+ * used order. a hit or a miss moves the tuple to the front of the dictionary.
+ *
+ * the reader fails if the end marker is missing or the number of records in the blocks is not the number of
+ * records in the header, so a truncated trace is never taken as a shorter one.
+ * -------------------------------------------------------
+ */
+
+import java.nio.ByteOrder;
+
+final class CompressedTraceFormat {
+    static final int MAGIC = 0x5A545042; // "BPTZ" in little endian
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_COUNT_OFFSET = 12;
+    static final int BLOCK_RECORDS = 4096;
+    static final int DICTIONARY_SIZE = 16;
+    static final int MISS = DICTIONARY_SIZE;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // the biggest encoded address section record (code, two 10 byte varints and a 5 byte varint)
+    static final int MAX_RECORD_SIZE = 1 + 10 + 10 + 5;
+
+    private CompressedTraceFormat() {
+        // make the constructor private to avoid instantiating.
+    }
+
+    /**
+     * write an unsigned varint (7 bits per byte, the high bit is set if more bytes follow)
+     *
+     * @param dst   the destination array (must have 10 free bytes)
+     * @param pos   the position of the first byte
+     * @param value the value
+     * @return the position after the last written byte
+     */
+    static int putVarLong(byte[] dst, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            dst[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dst[pos++] = (byte) value;
+        return pos;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * find a tuple in the dictionary and move it to the front
+     *
+     * @return the index of the tuple before it is moved or -1 if the tuple is not in the dictionary
+     */
+    static int lookup(long[] pcs, long[] targets, int[] opcodes, int size, long pc, long target, int opcode) {
+        for (int i = 0; i < size; i++) {
+            if (pcs[i] == pc && targets[i] == target && opcodes[i] == opcode) {
+                moveToFront(pcs, targets, opcodes, i);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * move the dictionary entry at index to the front and shift the more recent entries one step back
+     */
+    static void moveToFront(long[] pcs, long[] targets, int[] opcodes, int index) {
+        long pc = pcs[index];
+        long target = targets[index];
+        int opcode = opcodes[index];
+        System.arraycopy(pcs, 0, pcs, 1, index);
+        System.arraycopy(targets, 0, targets, 1, index);
+        System.arraycopy(opcodes, 0, opcodes, 1, index);
+        pcs[0] = pc;
+        targets[0] = target;
+        opcodes[0] = opcode;
+    }
+}
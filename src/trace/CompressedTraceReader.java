@@ -0,0 +1,201 @@
+package trace;
+
+import predictors.CompactBranchInstruction;
+import utils.BranchResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static trace.CompressedTraceFormat.*;
+
+/**
+ * reads a trace in the compressed trace format. see CompressedTraceFormat for the layout.
+ * the trace is decoded one block at a time into primitive arrays and the records are streamed into a single
+ * reused instruction, so the memory usage does not depend on the size of the trace.
+ */
+public class CompressedTraceReader implements TraceSource, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final int opcodeSize;
+    private final int instructionAddressSize;
+    private final int jumpAddressSize;
+    private final long recordCount;
+
+    /**
+     * open the trace and read its header
+     *
+     * @param path the trace file
+     * @throws IOException if the file can not be read or it is not a compressed trace
+     */
+    public CompressedTraceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IOException("trace header is truncated");
+            }
+
+            if (header.getInt(0) != MAGIC) throw new IOException("file is not a compressed branch trace");
+            if (header.getShort(4) != VERSION) throw new IOException("unsupported compressed trace version");
+
+            this.opcodeSize = header.get(6);
+            this.instructionAddressSize = header.get(7);
+            this.jumpAddressSize = header.get(8);
+            this.recordCount = header.getLong(RECORD_COUNT_OFFSET);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @throws IOException if the trace can not be read, it is corrupted or it has not as many records as its header
+     */
+    @Override
+    public void forEach(TraceConsumer consumer) throws IOException {
+        // every call has its own decoder, so the trace can be streamed by several threads at once
+        new Decoder().decode(newInstruction(), consumer);
+    }
+
+    /**
+     * the state of a single pass over the trace
+     */
+    private final class Decoder {
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final long[] pcs = new long[BLOCK_RECORDS];
+        private final long[] targets = new long[BLOCK_RECORDS];
+        private final int[] opcodes = new int[BLOCK_RECORDS];
+        private final long[] dictionaryPcs = new long[DICTIONARY_SIZE];
+        private final long[] dictionaryTargets = new long[DICTIONARY_SIZE];
+        private final int[] dictionaryOpcodes = new int[DICTIONARY_SIZE];
+        private long filePosition = HEADER_SIZE;
+
+        Decoder() {
+            buffer.flip();
+        }
+
+        void decode(CompactBranchInstruction instruction, TraceConsumer consumer) throws IOException {
+            long decoded = 0;
+            int n;
+            while ((n = readBlockSize()) > 0) {
+                if (n > BLOCK_RECORDS) throw new IOException("corrupted block in compressed trace");
+                decoded += n;
+
+                // decode the address section
+                int dictionarySize = 0;
+                long previousPc = 0;
+                for (int i = 0; i < n; i++) {
+                    int code = readByte();
+                    if (code < dictionarySize) {
+                        pcs[i] = dictionaryPcs[code];
+                        targets[i] = dictionaryTargets[code];
+                        opcodes[i] = dictionaryOpcodes[code];
+                        moveToFront(dictionaryPcs, dictionaryTargets, dictionaryOpcodes, code);
+                    } else if (code == MISS) {
+                        pcs[i] = previousPc + unzigzag(readVarLong());
+                        targets[i] = pcs[i] + unzigzag(readVarLong());
+                        opcodes[i] = (int) readVarLong();
+
+                        if (dictionarySize < DICTIONARY_SIZE) dictionarySize++;
+                        dictionaryPcs[dictionarySize - 1] = pcs[i];
+                        dictionaryTargets[dictionarySize - 1] = targets[i];
+                        dictionaryOpcodes[dictionarySize - 1] = opcodes[i];
+                        moveToFront(dictionaryPcs, dictionaryTargets, dictionaryOpcodes, dictionarySize - 1);
+                    } else {
+                        throw new IOException("corrupted address code in compressed trace");
+                    }
+                    previousPc = pcs[i];
+                }
+
+                // decode the outcome runs and stream the records
+                boolean taken = readByte() != 0;
+                int i = 0;
+                while (i < n) {
+                    long run = readVarLong();
+                    if (run < 1 || run > n - i) throw new IOException("corrupted outcome run in compressed trace");
+
+                    BranchResult actual = taken ? BranchResult.TAKEN : BranchResult.NOT_TAKEN;
+                    for (int end = i + (int) run; i < end; i++) {
+                        consumer.accept(instruction.set(opcodes[i], pcs[i], targets[i]), actual);
+                    }
+                    taken = !taken;
+                }
+            }
+
+            // a trace which is cut at a block boundary or not closed by the writer has another number of records
+            if (decoded != recordCount) throw new IOException("compressed trace record count does not match its header");
+        }
+
+        /**
+         * @return the number of records of the next block or zero at the end marker
+         * @throws IOException if the trace ends before the end marker
+         */
+        private int readBlockSize() throws IOException {
+            return (int) readVarLong();
+        }
+
+        private int readByte() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) throw new IOException("compressed trace is truncated");
+            return buffer.get() & 0xFF;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("corrupted varint in compressed trace");
+        }
+
+        /**
+         * @return false if the end of the file is reached
+         */
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int n = channel.read(buffer, filePosition);
+            buffer.flip();
+            if (n <= 0) return false;
+
+            filePosition += n;
+            return true;
+        }
+    }
+
+    /**
+     * @return a new instruction with the field sizes of this trace
+     */
+    public CompactBranchInstruction newInstruction() {
+        return new CompactBranchInstruction(opcodeSize, instructionAddressSize, jumpAddressSize);
+    }
+
+    /**
+     * @return the number of records of the trace
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getOpcodeSize() {
+        return opcodeSize;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    public int getJumpAddressSize() {
+        return jumpAddressSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
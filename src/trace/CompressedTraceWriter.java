@@ -0,0 +1,208 @@
+package trace;
+
+import predictors.BranchInstruction;
+import predictors.CompactBranchInstruction;
+import utils.BranchResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static trace.CompressedTraceFormat.*;
+
+/**
+ * writes branch records in the compressed trace format. see CompressedTraceFormat for the layout.
+ * the records of a block are encoded in memory and written when the block is full.
+ */
+public class CompressedTraceWriter implements TraceConsumer, Closeable {
+    private final FileChannel channel;
+    private final int opcodeSize;
+    private final int instructionAddressSize;
+    private final int jumpAddressSize;
+    private long recordCount;
+
+    // the state of the current block
+    private final byte[] addresses = new byte[BLOCK_RECORDS * MAX_RECORD_SIZE];
+    private final boolean[] outcomes = new boolean[BLOCK_RECORDS];
+    private final byte[] block = new byte[10 + addresses.length + 1 + BLOCK_RECORDS * 10];
+    private final long[] dictionaryPcs = new long[DICTIONARY_SIZE];
+    private final long[] dictionaryTargets = new long[DICTIONARY_SIZE];
+    private final int[] dictionaryOpcodes = new int[DICTIONARY_SIZE];
+    private int dictionarySize;
+    private long previousPc;
+    private int addressesLength;
+    private int blockRecords;
+
+    /**
+     * create (or truncate) the trace file and write its header
+     *
+     * @param path                   the trace file
+     * @param opcodeSize             the number of bits of the opcodes
+     * @param instructionAddressSize the number of bits of the instruction addresses
+     * @param jumpAddressSize        the number of bits of the jump addresses
+     * @throws IOException if the file can not be written
+     */
+    public CompressedTraceWriter(Path path, int opcodeSize, int instructionAddressSize, int jumpAddressSize) throws IOException {
+        this.opcodeSize = opcodeSize;
+        this.instructionAddressSize = instructionAddressSize;
+        this.jumpAddressSize = jumpAddressSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        // write the header with an empty record count
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.put((byte) opcodeSize);
+        header.put((byte) instructionAddressSize);
+        header.put((byte) jumpAddressSize);
+        header.position(0);
+        try {
+            write(header);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * append a record to the trace
+     *
+     * @param instruction the branch instruction
+     * @param actual      the actual result of the branch
+     * @throws IOException if the block can not be flushed
+     */
+    public void write(CompactBranchInstruction instruction, BranchResult actual) throws IOException {
+        write(instruction.getInstructionAddress(), instruction.getJumpAddress(), instruction.getOpcode(),
+                actual == BranchResult.TAKEN);
+    }
+
+    /**
+     * append a record to the trace
+     *
+     * @param instruction the branch instruction
+     * @param actual      the actual result of the branch
+     * @throws IOException if the block can not be flushed
+     */
+    public void write(BranchInstruction instruction, BranchResult actual) throws IOException {
+        write(CompactBranchInstruction.of(instruction), actual);
+    }
+
+    /**
+     * append a record to the trace
+     *
+     * @param instructionAddress the address of the branch instruction
+     * @param jumpAddress        the target address of the branch
+     * @param opcode             the opcode of the branch instruction
+     * @param taken              the actual result of the branch
+     * @throws IOException if the block can not be flushed
+     */
+    public void write(long instructionAddress, long jumpAddress, int opcode, boolean taken) throws IOException {
+        // encode the address as a dictionary hit or a delta from the previous address
+        int hit = lookup(dictionaryPcs, dictionaryTargets, dictionaryOpcodes, dictionarySize,
+                instructionAddress, jumpAddress, opcode);
+        if (hit >= 0) {
+            addresses[addressesLength++] = (byte) hit;
+        } else {
+            addresses[addressesLength++] = (byte) MISS;
+            addressesLength = putVarLong(addresses, addressesLength, zigzag(instructionAddress - previousPc));
+            addressesLength = putVarLong(addresses, addressesLength, zigzag(jumpAddress - instructionAddress));
+            addressesLength = putVarLong(addresses, addressesLength, opcode & 0xFFFFFFFFL);
+
+            // the new tuple replaces the least recently used one
+            if (dictionarySize < DICTIONARY_SIZE) dictionarySize++;
+            dictionaryPcs[dictionarySize - 1] = instructionAddress;
+            dictionaryTargets[dictionarySize - 1] = jumpAddress;
+            dictionaryOpcodes[dictionarySize - 1] = opcode;
+            moveToFront(dictionaryPcs, dictionaryTargets, dictionaryOpcodes, dictionarySize - 1);
+        }
+        previousPc = instructionAddress;
+
+        outcomes[blockRecords++] = taken;
+        recordCount++;
+        if (blockRecords == BLOCK_RECORDS) flush();
+    }
+
+    @Override
+    public void accept(CompactBranchInstruction instruction, BranchResult actual) throws IOException {
+        write(instruction, actual);
+    }
+
+    /**
+     * @return the number of records which are written
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getOpcodeSize() {
+        return opcodeSize;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    public int getJumpAddressSize() {
+        return jumpAddressSize;
+    }
+
+    /**
+     * encode the run lengths of the outcomes and write the block
+     */
+    private void flush() throws IOException {
+        if (blockRecords == 0) return;
+
+        int length = putVarLong(block, 0, blockRecords);
+        System.arraycopy(addresses, 0, block, length, addressesLength);
+        length += addressesLength;
+
+        // run length encode the outcomes
+        boolean current = outcomes[0];
+        block[length++] = (byte) (current ? 1 : 0);
+        int run = 0;
+        for (int i = 0; i < blockRecords; i++) {
+            if (outcomes[i] != current) {
+                length = putVarLong(block, length, run);
+                current = outcomes[i];
+                run = 0;
+            }
+            run++;
+        }
+        length = putVarLong(block, length, run);
+
+        write(ByteBuffer.wrap(block, 0, length));
+
+        // reset the block state
+        blockRecords = 0;
+        addressesLength = 0;
+        dictionarySize = 0;
+        previousPc = 0;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /**
+     * flush the last block, mark the end of the trace and write the record count in the header
+     *
+     * @throws IOException if the file can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+
+        try {
+            flush();
+            write(ByteBuffer.wrap(new byte[]{0}));
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ORDER).putLong(0, recordCount);
+            channel.write(count, RECORD_COUNT_OFFSET);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package trace;
+
+/**
+ * receives the progress of a long running trace operation
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /**
+     * @param records    the number of records which are processed so far
+     * @param bytesRead  the number of bytes which are read from the input file so far
+     * @param totalBytes the size of the input file
+     */
+    void progress(long records, long bytesRead, long totalBytes);
+}
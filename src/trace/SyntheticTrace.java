@@ -0,0 +1,210 @@
+package trace;
+
+/*
+ * our synthetic trace generator
+ * read below assumptions about the synthetic workloads
+ * ------------------------------------------------------
+ * ASSUMPTIONS:
+ * 1) the trace is generated from a seed, so the same seed, workload and length always give the same records.
+ *
+ * 2) the instruction addresses are word aligned (multiple of 4) and fit in the instruction address size.
+ * the jump addresses are close to the instruction addresses.
+ *
+ * 3) the opcode is not modeled, so every branch has an empty opcode.
+ * -------------------------------------------------------
+ */
+
+import predictors.CompactBranchInstruction;
+import utils.BranchResult;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * a seeded trace which models a typical workload. the trace is generated on the fly by every call of forEach,
+ * so it does not need any storage.
+ */
+public class SyntheticTrace implements TraceSource {
+    /**
+     * the workloads which can be generated
+     */
+    public enum Workload {
+        LOOP, // nested loops with a fixed trip count and loop bodies with periodic branches
+        CORRELATED, // branches whose outcomes are a function of the outcomes of the previous branches
+        BIASED, // static branches which are mostly taken or mostly not taken with a skewed execution frequency
+        RANDOM // random addresses and outcomes (the worst case for every predictor)
+    }
+
+    private static final int LOOPS = 8;
+    private static final int LOOP_BODY_BRANCHES = 3;
+    private static final int BIASED_BRANCHES = 64;
+
+    private final Workload workload;
+    private final long seed;
+    private final long length;
+    private final int instructionAddressSize;
+    private final long addressMask;
+
+    /**
+     * @param workload               the type of the workload
+     * @param seed                   the seed of the random generator
+     * @param length                 the number of records of the trace
+     * @param instructionAddressSize the number of bits of the instruction and jump addresses (at least 8)
+     */
+    public SyntheticTrace(Workload workload, long seed, long length, int instructionAddressSize) {
+        if (length < 0) throw new IllegalArgumentException("trace length can not be negative");
+        if (instructionAddressSize < 8 || instructionAddressSize > 64)
+            throw new IllegalArgumentException("address size must be between 8 and 64 bits");
+
+        this.workload = workload;
+        this.seed = seed;
+        this.length = length;
+        this.instructionAddressSize = instructionAddressSize;
+        this.addressMask = instructionAddressSize == 64 ? -1L : (1L << instructionAddressSize) - 1;
+    }
+
+    @Override
+    public void forEach(TraceConsumer consumer) throws IOException {
+        Generator generator = new Generator(consumer);
+        switch (workload) {
+            case LOOP:
+                generator.loops();
+                break;
+            case CORRELATED:
+                generator.correlated();
+                break;
+            case BIASED:
+                generator.biased();
+                break;
+            case RANDOM:
+                generator.random();
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * @return a new instruction with the field sizes of this trace
+     */
+    public CompactBranchInstruction newInstruction() {
+        return new CompactBranchInstruction(0, instructionAddressSize, instructionAddressSize);
+    }
+
+    public Workload getWorkload() {
+        return workload;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the number of records of the trace
+     */
+    public long getRecordCount() {
+        return length;
+    }
+
+    public int getInstructionAddressSize() {
+        return instructionAddressSize;
+    }
+
+    /**
+     * the state of a single pass over the trace
+     */
+    private final class Generator {
+        private final TraceConsumer consumer;
+        private final CompactBranchInstruction instruction = newInstruction();
+        private final SplittableRandom random = new SplittableRandom(seed);
+        private long emitted;
+
+        Generator(TraceConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        /**
+         * @return false when the trace is complete
+         */
+        private boolean emit(long instructionAddress, long jumpAddress, boolean taken) throws IOException {
+            if (emitted == length) return false;
+
+            instruction.set(0, instructionAddress & addressMask, jumpAddress & addressMask);
+            consumer.accept(instruction, taken ? BranchResult.TAKEN : BranchResult.NOT_TAKEN);
+            return ++emitted < length;
+        }
+
+        private long address() {
+            return (random.nextLong() << 2) & addressMask;
+        }
+
+        void loops() throws IOException {
+            // each loop has a backward loop branch and a few body branches with a periodic pattern
+            long[] loopBranches = new long[LOOPS];
+            int[] tripCounts = new int[LOOPS];
+            long[][] bodyBranches = new long[LOOPS][LOOP_BODY_BRANCHES];
+            int[][] periods = new int[LOOPS][LOOP_BODY_BRANCHES];
+            for (int loop = 0; loop < LOOPS; loop++) {
+                loopBranches[loop] = address();
+                tripCounts[loop] = 2 + random.nextInt(31);
+                for (int b = 0; b < LOOP_BODY_BRANCHES; b++) {
+                    bodyBranches[loop][b] = address();
+                    periods[loop][b] = 1 + random.nextInt(4);
+                }
+            }
+
+            // an outer loop runs the inner loops one after another
+            long outerBranch = address();
+            while (true) {
+                for (int loop = 0; loop < LOOPS; loop++) {
+                    for (int i = 0; i < tripCounts[loop]; i++) {
+                        for (int b = 0; b < LOOP_BODY_BRANCHES; b++) {
+                            long pc = bodyBranches[loop][b];
+                            if (!emit(pc, pc + 16, i % periods[loop][b] == 0)) return;
+                        }
+                        long pc = loopBranches[loop];
+                        if (!emit(pc, pc - 64, i < tripCounts[loop] - 1)) return;
+                    }
+                }
+                if (!emit(outerBranch, outerBranch - 1024, true)) return;
+            }
+        }
+
+        void correlated() throws IOException {
+            // two data dependent branches are followed by branches which repeat or combine their outcomes
+            long a = address(), b = address(), and = address(), xor = address(), copy = address();
+            while (true) {
+                boolean x = random.nextInt(4) != 0;
+                boolean y = random.nextBoolean();
+                if (!emit(a, a + 32, x)) return;
+                if (!emit(b, b + 32, y)) return;
+                if (!emit(and, and + 32, x && y)) return;
+                if (!emit(xor, xor + 32, x ^ y)) return;
+                if (!emit(copy, copy + 32, x)) return;
+            }
+        }
+
+        void biased() throws IOException {
+            // the execution frequency of the branches is skewed by picking the minimum of two random indices
+            long[] branches = new long[BIASED_BRANCHES];
+            int[] bias = new int[BIASED_BRANCHES]; // the probability of taken in percent
+            for (int i = 0; i < BIASED_BRANCHES; i++) {
+                branches[i] = address();
+                int strength = 70 + random.nextInt(30);
+                bias[i] = random.nextBoolean() ? strength : 100 - strength;
+            }
+
+            while (true) {
+                int i = Math.min(random.nextInt(BIASED_BRANCHES), random.nextInt(BIASED_BRANCHES));
+                if (!emit(branches[i], branches[i] + 64, random.nextInt(100) < bias[i])) return;
+            }
+        }
+
+        void random() throws IOException {
+            while (true) {
+                long pc = address();
+                if (!emit(pc, address(), random.nextBoolean())) return;
+            }
+        }
+    }
+}
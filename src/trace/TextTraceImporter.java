@@ -0,0 +1,240 @@
+package trace;
+
+/*
+ * our text trace importer
+ * read below assumptions about the text trace format
+ * ------------------------------------------------------
+ * ASSUMPTIONS:
+ * 1) each line holds one branch: the hex instruction address, the hex jump address and the outcome.
+ * the fields are separated by spaces, tabs or commas. the hex values may have a 0x prefix.
+ *
+ * 2) the outcome is the single character T or N (1 or 0 is accepted too, t and n too). a longer outcome
+ * field like "TX" or "1abc" is rejected. any field after the outcome is ignored.
+ *
+ * 3) empty lines and lines which start with # are skipped.
+ *
+ * 4) the file may be gzipped. gzip files are detected by their magic bytes, not by the file name.
+ *
+ * 5) the opcode is not part of the text format, so every imported branch has an empty opcode.
+ * -------------------------------------------------------
+ */
+
+import predictors.CompactBranchInstruction;
+import utils.BranchResult;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * streams a text branch trace without regex or String.split. the file is parsed byte by byte from a fixed
+ * size buffer, so the importer runs in constant memory.
+ */
+public class TextTraceImporter implements TraceSource {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final int instructionAddressSize;
+    private final int jumpAddressSize;
+    private ProgressListener progressListener;
+    private long progressInterval;
+
+    /**
+     * @param path                   the text trace file
+     * @param instructionAddressSize the number of bits of the instruction addresses
+     * @param jumpAddressSize        the number of bits of the jump addresses
+     */
+    public TextTraceImporter(Path path, int instructionAddressSize, int jumpAddressSize) {
+        this.path = path;
+        this.instructionAddressSize = instructionAddressSize;
+        this.jumpAddressSize = jumpAddressSize;
+    }
+
+    /**
+     * report the progress of the import every {@code interval} records
+     *
+     * @param listener the progress listener (null to disable the report)
+     * @param interval the number of records between two reports
+     */
+    public void setProgressListener(ProgressListener listener, long interval) {
+        if (interval < 1) throw new IllegalArgumentException("progress interval must be positive");
+
+        this.progressListener = listener;
+        this.progressInterval = interval;
+    }
+
+    /**
+     * convert the text trace to a binary trace
+     *
+     * @param output the binary trace file
+     * @return the number of records which are converted
+     * @throws IOException if the text trace is malformed or any file can not be accessed
+     */
+    public long convert(Path output) throws IOException {
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(output, 0, instructionAddressSize, jumpAddressSize)) {
+            forEach(writer);
+            return writer.getRecordCount();
+        }
+    }
+
+    /**
+     * @throws IOException if the text trace is malformed or the file can not be read
+     */
+    @Override
+    public void forEach(TraceConsumer consumer) throws IOException {
+        long totalBytes = Files.size(path);
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(path));
+             InputStream in = open(counter)) {
+            parse(in, counter, totalBytes, consumer);
+        }
+    }
+
+    /**
+     * wrap the file stream in a gzip stream if the file starts with the gzip magic bytes
+     */
+    private static InputStream open(InputStream file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(file, 2);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        boolean gzip = first == 0x1f && second == 0x8b;
+        return gzip ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    private void parse(InputStream in, CountingInputStream counter, long totalBytes, TraceConsumer consumer) throws IOException {
+        CompactBranchInstruction instruction = new CompactBranchInstruction(0, instructionAddressSize, jumpAddressSize);
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        long line = 1;
+        long records = 0;
+        long[] hex = new long[2]; // the instruction address and jump address of the line
+        int field = 0; // the index of the current field in the line
+        int digits = 0; // the number of characters in the current field
+        boolean inField = false;
+        boolean comment = false;
+        BranchResult outcome = null;
+
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            for (int i = 0; i < n; i++) {
+                int c = buffer[i];
+
+                if (c == '\n' || c == '\r') {
+                    if (inField) field++;
+                    if (field > 0 && !comment) {
+                        if (field < 3) throw malformed(line, "expected address, target and outcome");
+
+                        consumer.accept(instruction.set(0, hex[0], hex[1]), outcome);
+                        records++;
+                        if (progressListener != null && records % progressInterval == 0)
+                            progressListener.progress(records, counter.count, totalBytes);
+                    }
+
+                    // reset the line state (an empty line after \r of a \r\n pair is skipped)
+                    if (c == '\n') line++;
+                    field = 0;
+                    digits = 0;
+                    inField = false;
+                    comment = false;
+                    hex[0] = 0;
+                    hex[1] = 0;
+                    continue;
+                }
+                if (comment) continue;
+
+                if (c == ' ' || c == '\t' || c == ',') {
+                    if (inField) {
+                        inField = false;
+                        field++;
+                        digits = 0;
+                    }
+                    continue;
+                }
+
+                if (!inField) {
+                    if (field == 0 && c == '#') {
+                        comment = true;
+                        continue;
+                    }
+                    inField = true;
+                }
+
+                if (field < 2) {
+                    // skip the 0x prefix
+                    if ((c == 'x' || c == 'X') && digits == 1 && hex[field] == 0) {
+                        digits = 0;
+                        continue;
+                    }
+                    int digit = hexDigit(c);
+                    if (digit < 0) throw malformed(line, "invalid hex digit '" + (char) c + "'");
+                    if (++digits > 16) throw malformed(line, "hex value is longer than 64 bits");
+                    hex[field] = (hex[field] << 4) | digit;
+                } else if (field == 2) {
+                    // the outcome is a single character, so a shifted or corrupt column is not imported silently
+                    if (digits++ > 0) throw malformed(line, "outcome must be a single character");
+                    if (c == 'T' || c == 't' || c == '1') outcome = BranchResult.TAKEN;
+                    else if (c == 'N' || c == 'n' || c == '0') outcome = BranchResult.NOT_TAKEN;
+                    else throw malformed(line, "invalid outcome '" + (char) c + "'");
+                }
+            }
+        }
+
+        // the last line may not end with a line break
+        if (inField) field++;
+        if (field > 0 && !comment) {
+            if (field < 3) throw malformed(line, "expected address, target and outcome");
+            consumer.accept(instruction.set(0, hex[0], hex[1]), outcome);
+            records++;
+        }
+
+        if (progressListener != null) progressListener.progress(records, counter.count, totalBytes);
+    }
+
+    private static int hexDigit(int c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private IOException malformed(long line, String message) {
+        return new IOException(path + ":" + line + ": " + message);
+    }
+
+    /**
+     * counts the bytes which are read from the file (before decompression)
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package trace;
+
+import predictors.CompactBranchInstruction;
+import utils.BranchResult;
+
+import java.io.IOException;
+
+/**
+ * receives the records of a branch trace one by one.
+ * the instruction object may be reused by the caller for the next record, so it must not be kept.
+ */
+@FunctionalInterface
+public interface TraceConsumer {
+    /**
+     * @param instruction the branch instruction of the record
+     * @param actual      the actual result of the branch
+     * @throws IOException if the consumer writes the record and the write fails
+     */
+    void accept(CompactBranchInstruction instruction, BranchResult actual) throws IOException;
+}
@@ -0,0 +1,54 @@
+package trace;
+
+import predictors.BranchPredictor;
+import utils.BranchResult;
+
+import java.io.IOException;
+
+/**
+ * a branch trace which can be streamed record by record. every call of forEach streams the trace from the start.
+ * all the records of a trace have the same field sizes.
+ */
+public interface TraceSource {
+    /**
+     * the number of records which are passed to the predictor at once by replay
+     */
+    int REPLAY_BLOCK_SIZE = 4096;
+
+    /**
+     * stream all the records of the trace to the consumer
+     *
+     * @param consumer the consumer of the records
+     * @throws IOException if the trace can not be read
+     */
+    void forEach(TraceConsumer consumer) throws IOException;
+
+    /**
+     * predict and update the predictor with every record of the trace. the records are collected in blocks
+     * and passed to the batch entry point of the predictor with the address size of the records.
+     *
+     * @param predictor the branch predictor
+     * @return the number of correct predictions
+     * @throws IOException if the trace can not be read
+     */
+    default long replay(BranchPredictor predictor) throws IOException {
+        long[] instructionAddresses = new long[REPLAY_BLOCK_SIZE];
+        boolean[] outcomes = new boolean[REPLAY_BLOCK_SIZE];
+        int[] length = new int[1];
+        int[] addressSize = new int[1];
+        long[] hits = new long[1];
+
+        forEach((instruction, actual) -> {
+            addressSize[0] = instruction.getInstructionAddressSize();
+            instructionAddresses[length[0]] = instruction.getInstructionAddress();
+            outcomes[length[0]] = actual == BranchResult.TAKEN;
+            if (++length[0] == REPLAY_BLOCK_SIZE) {
+                hits[0] += predictor.predictAndUpdate(instructionAddresses, addressSize[0], outcomes, 0,
+                        REPLAY_BLOCK_SIZE, null);
+                length[0] = 0;
+            }
+        });
+
+        return hits[0] + predictor.predictAndUpdate(instructionAddresses, addressSize[0], outcomes, 0, length[0], null);
+    }
+}
@@ -27,6 +27,72 @@ public enum Bit {
         return result;
     }
 
+    /**
+     * Converts a bit array of at most 64 bits to a long value.
+     * The most significant bit is assumed to be the leftmost bit in the array.
+     *
+     * @return the long value of the bit array
+     */
+    public static long toLong(Bit[] array) {
+        long result = 0;
+        for (Bit bit : array) result = (result << 1) | (bit == Bit.ONE ? 1 : 0);
+        return result;
+    }
+
+    /**
+     * Converts the first (leftmost) {@code length} bits of a bit array to a long value.
+     *
+     * @param array  the bit array
+     * @param length the number of bits which is converted (at most 64 and at most the length of the array)
+     * @return the long value of the first bits of the array
+     */
+    public static long toLong(Bit[] array, int length) {
+        long result = 0;
+        for (int i = 0; i < length; i++) result = (result << 1) | (array[i] == Bit.ONE ? 1 : 0);
+        return result;
+    }
+
+    /**
+     * Returns the first (leftmost) {@code length} bits of a {@code size} bits value. For a value which fits in
+     * {@code size} bits the result is the same as {@code toLong(toBits(value, size), Math.min(size, length))}.
+     *
+     * @param value  the number
+     * @param size   the number of bits of the value (at most 64)
+     * @param length the number of leftmost bits which is kept
+     * @return the long value of the first bits of the value
+     */
+    public static long firstBits(long value, int size, int length) {
+        return size > length ? value >>> (size - length) : value;
+    }
+
+    /**
+     * Converts the lowest {@code size} bits of the value to a bit array.
+     * The most significant bit is placed in the leftmost element of the array.
+     *
+     * @param value the number which is converted
+     * @param size  the number of bits in the result
+     * @return the bit array representing the value
+     */
+    public static Bit[] toBits(long value, int size) {
+        Bit[] bits = new Bit[size];
+        for (int i = 0; i < size; i++) bits[i] = ((value >>> (size - 1 - i)) & 1) == 1 ? Bit.ONE : Bit.ZERO;
+        return bits;
+    }
+
+    /**
+     * Converts the lowest {@code size} bits of the value to a string of 0 and 1 characters.
+     * The result is the same as {@code arrayToString(toBits(value, size))}.
+     *
+     * @param value the number which is converted
+     * @param size  the number of characters in the result
+     * @return the binary string of the value
+     */
+    public static String toBinaryString(long value, int size) {
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) chars[i] = ((value >>> (size - 1 - i)) & 1) == 1 ? '1' : '0';
+        return new String(chars);
+    }
+
     /**
      * @return the value assigned to bit enum
      */
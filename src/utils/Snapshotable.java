@@ -0,0 +1,26 @@
+package utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * a device or predictor whose state can be saved and restored in a binary form
+ */
+public interface Snapshotable {
+    /**
+     * write the full state
+     *
+     * @param out the destination of the state
+     * @throws IOException if the state can not be written
+     */
+    void save(DataOutput out) throws IOException;
+
+    /**
+     * replace the state with a saved state. the object must have the same sizes as the saved object.
+     *
+     * @param in the source of the state
+     * @throws IOException if the state can not be read or it does not match the object
+     */
+    void restore(DataInput in) throws IOException;
+}
@@ -0,0 +1,16 @@
+package utils;
+
+/**
+ * the storage model which is used by predictors for their tables and registers
+ */
+public enum StorageMode {
+    /**
+     * lazily allocated tables keyed by the string value of the address (the reference model)
+     */
+    MAPPED,
+
+    /**
+     * tables which are allocated up front in primitive arrays and indexed by the integer value of the address
+     */
+    DENSE
+}